@@ -0,0 +1,42 @@
+package com.mlpinit.benchmarks;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.BoardGenerator;
+import com.mlpinit.models.CellGrid;
+import com.mlpinit.models.GameSnapshot;
+
+/*
+ * Boards shared by the benchmarks. Sizes are given as "<height>x<width>" parameters. Boards are generated once
+ * per trial and restored from a snapshot whenever a benchmark needs a fresh copy.
+ */
+final class BenchmarkBoards {
+    static final long SEED = 42;
+
+    private BenchmarkBoards() {
+    }
+
+    static int height(String size) {
+        return Integer.parseInt(size.substring(0, size.indexOf('x')));
+    }
+
+    static int width(String size) {
+        return Integer.parseInt(size.substring(size.indexOf('x') + 1));
+    }
+
+    static int mines(String size, double density) {
+        return (int) Math.round(height(size) * width(size) * density);
+    }
+
+    // Cell values of a board generated as if the first click was at clickPosition.
+    static CellGrid generate(String size, double density, int clickPosition) {
+        CellGrid grid = new CellGrid(height(size), width(size));
+        new BoardGenerator().generate(grid, mines(size, density), SEED, clickPosition);
+        return grid;
+    }
+
+    // A started board with every cell of the grid still closed.
+    static GameSnapshot closed(CellGrid grid, int mines) {
+        return new GameSnapshot(grid.getHeight(), grid.getWidth(), mines, SEED, Board.State.STARTED, mines, 0,
+                grid.copyCells());
+    }
+}
@@ -0,0 +1,64 @@
+package com.mlpinit.benchmarks;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.CellGrid;
+import com.mlpinit.models.GameSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Opening an empty cell on boards with few mines, where one click cascades over most of the board. Every
+ * invocation starts from the same closed board, copied back into the grid of the previous invocation so that
+ * neither the copy nor garbage from it shows up in the measurement.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CascadeOpenBenchmark {
+    @Param({"256x256", "1024x1024", "2048x2048"})
+    public String size;
+
+    @Param({"0.01", "0.05", "0.1"})
+    public double density;
+
+    private GameSnapshot closedBoard;
+    private int clickX;
+    private int clickY;
+    private Board board;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        int height = BenchmarkBoards.height(size);
+        int width = BenchmarkBoards.width(size);
+        clickX = height / 2;
+        clickY = width / 2;
+        CellGrid grid = BenchmarkBoards.generate(size, density, clickX * width + clickY);
+        // move the click to the nearest empty cell so that it always cascades
+        int position = clickX * width + clickY;
+        while (grid.getValue(position) != 0) position = (position + 1) % grid.size();
+        clickX = position / width;
+        clickY = position % width;
+        closedBoard = BenchmarkBoards.closed(grid, BenchmarkBoards.mines(size, density));
+        board = Board.restore(closedBoard);
+    }
+
+    @Setup(Level.Invocation)
+    public void restore() {
+        board.load(closedBoard);
+    }
+
+    @Benchmark
+    public Board cascade() {
+        board.open(clickX, clickY);
+        return board;
+    }
+}
@@ -0,0 +1,79 @@
+package com.mlpinit.benchmarks;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.CellGrid;
+import com.mlpinit.models.GameSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Chords on opened numbers whose mines are all marked, the way experienced players clear a board. Every
+ * invocation chords CHORDS numbers spread over the same board, copied back into the existing grid beforehand.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class OpenNeighboursBenchmark {
+    private static final int CHORDS = 1024;
+
+    @Param({"256x256", "1024x1024", "2048x2048"})
+    public String size;
+
+    @Param({"0.15", "0.21"})
+    public double density;
+
+    private GameSnapshot markedBoard;
+    private int[] chords;
+    private Board board;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        int width = BenchmarkBoards.width(size);
+        CellGrid grid = BenchmarkBoards.generate(size, density, 0);
+        Board template = Board.restore(BenchmarkBoards.closed(grid, BenchmarkBoards.mines(size, density)));
+        for (int position = 0; position < grid.size(); position++) {
+            if (grid.isMine(position)) template.toggleMark(position / width, position % width);
+        }
+        // open numbers evenly spread over the board, they do not cascade
+        chords = new int[CHORDS];
+        int found = 0;
+        int step = Math.max(1, grid.size() / chords.length);
+        for (int start = 0; start < grid.size() && found < chords.length; start += step) {
+            for (int position = start; position < Math.min(grid.size(), start + step); position++) {
+                if (grid.isMine(position) || grid.getValue(position) == 0) continue;
+                template.open(position / width, position % width);
+                chords[found++] = position;
+                break;
+            }
+        }
+        // every invocation has to chord exactly CHORDS numbers for the score per operation to be right
+        if (found != CHORDS) {
+            throw new IllegalStateException("Only found " + found + " of " + CHORDS + " numbers to chord.");
+        }
+        markedBoard = template.snapshot(0);
+        board = template;
+    }
+
+    @Setup(Level.Invocation)
+    public void restore() {
+        board.load(markedBoard);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHORDS)
+    public Board openNeighbours() {
+        int width = board.getWidth();
+        for (int position : chords) board.openNeighbours(position / width, position % width);
+        return board;
+    }
+}
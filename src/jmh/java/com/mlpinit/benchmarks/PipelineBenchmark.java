@@ -0,0 +1,77 @@
+package com.mlpinit.benchmarks;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.BoardActionInterpreter;
+import com.mlpinit.models.CellGrid;
+import com.mlpinit.models.Coordinate;
+import com.mlpinit.models.MouseButtonEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import rx.Subscription;
+import rx.subscriptions.CompositeSubscription;
+
+import java.awt.event.MouseEvent;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * The path of a right click from the board frame to the board: mouse events go through the
+ * BoardActionInterpreter, its requests are executed by the board and the batched update is delivered to a
+ * subscriber standing in for the frame. Clicks toggle marks on an end game board, so the game never ends.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class PipelineBenchmark {
+    @Param({"16x30", "256x256", "2048x2048"})
+    public String size;
+
+    private final CompositeSubscription subscriptions = new CompositeSubscription();
+    private BoardActionInterpreter interpreter;
+    private MouseButtonEvent[] presses;
+    private MouseButtonEvent[] releases;
+    private int next = 0;
+    private long updates = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        double density = 0.15;
+        Board board = ToggleMarkBenchmark.endGame(size, density);
+        CellGrid grid = BenchmarkBoards.generate(size, density, 0);
+        presses = new MouseButtonEvent[BenchmarkBoards.mines(size, density)];
+        releases = new MouseButtonEvent[presses.length];
+        int found = 0;
+        for (int position = 0; position < grid.size(); position++) {
+            if (!grid.isMine(position)) continue;
+            Coordinate coordinate = new Coordinate(position / grid.getWidth(), position % grid.getWidth());
+            presses[found] = new MouseButtonEvent(coordinate, MouseEvent.BUTTON3, MouseEvent.MOUSE_PRESSED);
+            releases[found++] = new MouseButtonEvent(coordinate, MouseEvent.BUTTON3, MouseEvent.MOUSE_RELEASED);
+        }
+        interpreter = BoardActionInterpreter.create();
+        Subscription requests = interpreter.boardRequestObservable.subscribe(board::execute);
+        Subscription frame = board.boardUpdateObservable.subscribe(update -> updates += update.size());
+        subscriptions.add(requests);
+        subscriptions.add(frame);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        // every trial creates its own interpreter and board, release them before the next trial starts
+        subscriptions.clear();
+    }
+
+    @Benchmark
+    public long rightClick() {
+        interpreter.addEvent(presses[next]);
+        interpreter.addEvent(releases[next]);
+        next = next + 1 == presses.length ? 0 : next + 1;
+        return updates;
+    }
+}
@@ -0,0 +1,55 @@
+package com.mlpinit.benchmarks;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.BoardGenerator;
+import com.mlpinit.models.CellGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+// Board generation on the first click: grid allocation, mine placement and counts.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SetupBoardBenchmark {
+    @Param({"16x30", "256x256", "1024x1024", "2048x2048"})
+    public String size;
+
+    @Param({"0.05", "0.15", "0.21", "0.6"})
+    public double density;
+
+    private int height;
+    private int width;
+    private int mines;
+    private long seed = 0;
+    private final BoardGenerator generator = new BoardGenerator();
+
+    @Setup
+    public void setup() {
+        height = BenchmarkBoards.height(size);
+        width = BenchmarkBoards.width(size);
+        mines = BenchmarkBoards.mines(size, density);
+    }
+
+    @Benchmark
+    public CellGrid setupBoard() {
+        CellGrid grid = new CellGrid(height, width);
+        generator.generate(grid, mines, seed++, (height / 2) * width + width / 2);
+        return grid;
+    }
+
+    // The same through the public API, including the cascade of the first click.
+    @Benchmark
+    public Board firstClick() {
+        Board board = new Board(height, width, mines, seed++);
+        board.open(height / 2, width / 2);
+        return board;
+    }
+}
@@ -0,0 +1,83 @@
+package com.mlpinit.benchmarks;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.CellGrid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Marking mines near the end of a game: every safe cell but one is open. The mines are toggled round robin,
+ * which marks them on the first pass and unmarks them on the next, so the win check only runs once per pass,
+ * when the last mine is marked. The closed safe cell keeps that check from ever ending the game.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ToggleMarkBenchmark {
+    @Param({"16x30", "256x256", "1024x1024", "2048x2048"})
+    public String size;
+
+    @Param({"0.15", "0.21"})
+    public double density;
+
+    private Board board;
+    private int[] mines;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        board = endGame(size, density);
+        CellGrid grid = BenchmarkBoards.generate(size, density, 0);
+        mines = new int[BenchmarkBoards.mines(size, density)];
+        int found = 0;
+        for (int position = 0; position < grid.size(); position++) {
+            if (grid.isMine(position)) mines[found++] = position;
+        }
+    }
+
+    @Benchmark
+    public Board toggleMark() {
+        int position = mines[next];
+        next = next + 1 == mines.length ? 0 : next + 1;
+        board.toggleMark(position / board.getWidth(), position % board.getWidth());
+        return board;
+    }
+
+    // Board with every safe cell open except one that no cascade can reach.
+    static Board endGame(String size, double density) {
+        CellGrid grid = BenchmarkBoards.generate(size, density, 0);
+        Board board = Board.restore(BenchmarkBoards.closed(grid, BenchmarkBoards.mines(size, density)));
+        int width = grid.getWidth();
+        int closedSafe = -1;
+        for (int position = grid.size() - 1; position >= 0 && closedSafe < 0; position--) {
+            if (!grid.isMine(position) && grid.getValue(position) != 0 && !touchesEmpty(grid, position)) {
+                closedSafe = position;
+            }
+        }
+        if (closedSafe < 0) throw new IllegalStateException("Every safe cell can be reached by a cascade.");
+        for (int position = 0; position < grid.size(); position++) {
+            if (!grid.isMine(position) && position != closedSafe) board.open(position / width, position % width);
+        }
+        return board;
+    }
+
+    private static boolean touchesEmpty(CellGrid grid, int position) {
+        int x = position / grid.getWidth();
+        int y = position % grid.getWidth();
+        for (int i = x - 1; i <= x + 1; i++) {
+            for (int j = y - 1; j <= y + 1; j++) {
+                if (grid.contains(i, j) && grid.getValue(grid.position(i, j)) == 0) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,13 +1,29 @@
 package com.mlpinit.controllers;
 
+import com.mlpinit.metrics.EngineMetrics;
 import com.mlpinit.models.*;
+import com.mlpinit.persistence.GameFile;
+import com.mlpinit.persistence.GameRecord;
+import com.mlpinit.persistence.StatisticsStore;
+import com.mlpinit.solver.NoGuessBoardGenerator;
+import com.mlpinit.utils.Log;
 import com.mlpinit.views.BoardFrame;
-import rx.Observable;
+import rx.subscriptions.CompositeSubscription;
 
+import javax.swing.*;
 import java.awt.event.MouseEvent;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.HashSet;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
+/*
+ * Wires a board, its engine thread, timer and frame together once. Restarting resets the board and the frame in
+ * place, so nothing is rebuilt or resubscribed however often the player restarts.
+ */
 public class BoardController {
+    private static final String TAG = "[BoardController]";
     public static final HashSet<Integer> observedMouseEvents;
     static {
         observedMouseEvents = new HashSet<>();
@@ -15,65 +31,119 @@ public class BoardController {
         observedMouseEvents.add(MouseEvent.MOUSE_RELEASED);
         observedMouseEvents.add(MouseEvent.MOUSE_ENTERED);
     }
-    private int selectedHeight;
-    private int selectedWidth;
-    private int selectedNrOfMines;
-    private BoardFrame boardFrame;
-    private BoardActionInterpreter boardActionInterpreter;
-    private MinesweeperTimer minesweeperTimer;
-
-    private Observable<MouseButtonEvent> cellButtonBoardRequestObservable;
-    private Observable<MouseEvent> restartGameObservable;
-    private Board board;
+    // Start with -Dminesweeper.noGuess=true to only get boards that can be solved without guessing.
+    private static final boolean NO_GUESS = Boolean.getBoolean("minesweeper.noGuess");
+    // How long a click waits for room in the engine queue before it is dropped, a few frames at most.
+    private static final long INPUT_TIMEOUT_MILLIS = 50;
+    private final BoardFrame boardFrame;
+    private final BoardActionInterpreter boardActionInterpreter;
+    private final MinesweeperTimer minesweeperTimer;
+    private final GameEngine gameEngine;
+    private final Board board;
+    private final CompositeSubscription subscriptions = new CompositeSubscription();
+    // Where finished games are recorded, null when statistics are not kept.
+    private final StatisticsStore statisticsStore;
+    private final Path savePath = Paths.get(GameFile.DEFAULT_PATH);
 
     public BoardController(int height, int width, int nrOfMines) {
-        this.selectedHeight = height;
-        this.selectedWidth = width;
-        this.selectedNrOfMines = nrOfMines;
-        createNewGame();
-        setupObservables();
+        this(height, width, nrOfMines, null);
     }
 
-    private void createNewGame() {
+    public BoardController(int height, int width, int nrOfMines, StatisticsStore statisticsStore) {
+        this.statisticsStore = statisticsStore;
         this.boardActionInterpreter = BoardActionInterpreter.create();
         this.minesweeperTimer = new MinesweeperTimer();
-        this.board = new Board(selectedHeight, selectedWidth, selectedNrOfMines);
+        this.board = new Board(height, width, nrOfMines);
+        if (NO_GUESS) board.setGenerator(new NoGuessBoardGenerator());
+        this.gameEngine = new GameEngine(board).start();
         this.boardFrame = new BoardFrame(
-                board.openCellObservable,
-                board.markCellObservable,
-                board.incorrectCellMarkObservable,
-                board.openMineCellObservable,
-                board.removeCellMarkObservable,
-                board.remainingMinesObservable,
-                board.gameWonObservable,
+                gameEngine.getUpdates(),
                 minesweeperTimer.elapsedTimeObservable,
-                selectedHeight,
-                selectedWidth,
-                selectedNrOfMines
+                height,
+                width,
+                nrOfMines
         );
-        this.cellButtonBoardRequestObservable = boardFrame.getCellButtonBoardRequestObservable();
-        this.restartGameObservable = boardFrame.getRestartGameObservable();
+        setupObservables();
     }
 
     private void setupObservables() {
-        this.board.gameIsRunningObservable.subscribe(gameIsRunning -> {
+        subscriptions.add(board.gameIsRunningObservable.subscribe(gameIsRunning -> {
             if (gameIsRunning) {
                 minesweeperTimer.startTimer();
             } else {
                 minesweeperTimer.stopTimer();
+                if (board.getState() == Board.State.GAME_OVER) recordGame();
             }
-        });
-        cellButtonBoardRequestObservable
+        }));
+        subscriptions.add(boardFrame.getCellButtonBoardRequestObservable()
                 .filter(mouseButtonEvent -> observedMouseEvents.contains(mouseButtonEvent.getButtonID()))
-                .subscribe(boardActionInterpreter::addEvent);
-        boardActionInterpreter.boardRequestObservable.subscribe(board::execute);
-        restartGameObservable.filter(event -> event.getID() == MouseEvent.MOUSE_CLICKED)
-                .subscribe(event -> {
-                    this.boardFrame.setVisible(false);
-                    this.boardFrame.dispose();
-                    this.boardFrame = null;
-                    createNewGame();
-                    setupObservables();
+                .subscribe(mouseButtonEvent -> {
+                    EngineMetrics.get().mouseEvent();
+                    boardActionInterpreter.addEvent(mouseButtonEvent);
+                }));
+        subscriptions.add(boardActionInterpreter.boardRequestObservable.subscribe(request ->
+                gameEngine.submit(request, INPUT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)));
+        subscriptions.add(boardFrame.getRestartGameObservable()
+                .filter(event -> event.getID() == MouseEvent.MOUSE_CLICKED)
+                .subscribe(event -> restart()));
+        subscriptions.add(boardFrame.getSaveGameObservable()
+                .filter(event -> event.getID() == MouseEvent.MOUSE_CLICKED)
+                .subscribe(event -> save()));
+        subscriptions.add(boardFrame.getLoadGameObservable()
+                .filter(event -> event.getID() == MouseEvent.MOUSE_CLICKED)
+                .subscribe(event -> load()));
+    }
+
+    // Runs on the engine thread while the finished board is still untouched.
+    private void recordGame() {
+        if (statisticsStore == null) return;
+        statisticsStore.recordAsync(GameRecord.of(board, minesweeperTimer.getElapsedMillis()));
+    }
+
+    // The board resets on the engine thread; the frame follows when the reset update is drained.
+    public void restart() {
+        boardActionInterpreter.reset();
+        minesweeperTimer.setElapsedMillis(0);
+        gameEngine.reset();
+    }
+
+    // The snapshot is taken between two requests on the engine thread and written by the save thread.
+    public void save() {
+        gameEngine.call(() -> board.snapshot(minesweeperTimer.getElapsedMillis()))
+                .thenCompose(snapshot -> GameFile.saveAsync(savePath, snapshot))
+                .whenComplete((result, error) -> {
+                    if (error != null) failed("Could not save the game to " + savePath, error);
                 });
     }
+
+    /*
+     * Replaces the game with the saved one on the engine thread, so no request sees half of each. A save of
+     * other dimensions is rejected before anything changes. The clock is set to the saved time and only resumes
+     * when the saved game was still running.
+     */
+    public void load() {
+        boardActionInterpreter.reset();
+        gameEngine.call(() -> {
+            GameSnapshot snapshot = GameFile.load(savePath);
+            board.load(snapshot);
+            minesweeperTimer.setElapsedMillis(snapshot.getElapsedMillis());
+            if (board.getState() == Board.State.STARTED) minesweeperTimer.resume();
+            return snapshot;
+        }).whenComplete((snapshot, error) -> {
+            if (error != null) failed("Could not load the game from " + savePath, error);
+        });
+    }
+
+    private void failed(String message, Throwable error) {
+        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+        Log.warn(TAG, message + ": " + cause);
+        SwingUtilities.invokeLater(() -> boardFrame.showError(message + ".\n" + cause.getMessage()));
+    }
+
+    public void dispose() {
+        subscriptions.unsubscribe();
+        gameEngine.stop();
+        minesweeperTimer.stopTimer();
+        boardFrame.dispose();
+    }
 }
@@ -1,17 +1,23 @@
 package com.mlpinit.controllers;
 
+import com.mlpinit.metrics.EngineMetrics;
+import com.mlpinit.persistence.StatisticsStore;
+import com.mlpinit.utils.Log;
 import com.mlpinit.views.OptionsFrame;
 
 import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 public class OptionsController {
+    private static final String TAG = "[OptionsController]";
 
     private OptionsFrame optionsFrame;
 
-    public OptionsController() {
+    public OptionsController(StatisticsStore statisticsStore) {
         this.optionsFrame = new OptionsFrame();
         optionsFrame.gameModeObservable.subscribe(data -> {
-            new BoardController(data[0], data[1], data[2]);
+            new BoardController(data[0], data[1], data[2], statisticsStore);
             closeFrame();
         });
     }
@@ -21,6 +27,17 @@ public class OptionsController {
     }
 
     public static void main(String[] args) {
-        new OptionsController();
+        EngineMetrics.get().register();
+        new OptionsController(openStatistics());
+    }
+
+    // Games are still playable when the statistics can not be read, they are just not recorded.
+    private static StatisticsStore openStatistics() {
+        try {
+            return StatisticsStore.open(Paths.get(StatisticsStore.DEFAULT_PATH));
+        } catch (IOException e) {
+            Log.warn(TAG, "Statistics are not kept: " + e);
+            return null;
+        }
     }
 }
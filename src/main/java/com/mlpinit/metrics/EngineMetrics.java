@@ -0,0 +1,182 @@
+package com.mlpinit.metrics;
+
+import com.mlpinit.models.BoardAction;
+import com.mlpinit.utils.Log;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Process wide metrics of the game engine. Boards and controllers record into it from whatever thread they
+ * run on; all recording is lock free. The metrics can be read with snapshot() or over JMX once register() was
+ * called, under OBJECT_NAME.
+ */
+public class EngineMetrics implements EngineMetricsMBean {
+    private static final String TAG = "[EngineMetrics]";
+    public static final String OBJECT_NAME = "com.mlpinit.minesweeper:type=EngineMetrics";
+    private static final EngineMetrics instance = new EngineMetrics();
+
+    private final EnumMap<BoardAction, Histogram> executeLatency = new EnumMap<>(BoardAction.class);
+    private final Histogram eventsPerRequest = new Histogram();
+    private final Histogram cascadeSizes = new Histogram();
+    private final Histogram generationTime = new Histogram();
+    private final LongAdder gamesStarted = new LongAdder();
+    private final LongAdder gamesWon = new LongAdder();
+    private final LongAdder gamesLost = new LongAdder();
+    private final LongAdder mouseEvents = new LongAdder();
+    private final AtomicBoolean registered = new AtomicBoolean();
+
+    private EngineMetrics() {
+        for (BoardAction action : BoardAction.values()) executeLatency.put(action, new Histogram());
+    }
+
+    public static EngineMetrics get() {
+        return instance;
+    }
+
+    // Publishes the metrics on the platform MBean server. Calling it again has no effect.
+    public void register() {
+        if (!registered.compareAndSet(false, true)) return;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            Log.warn(TAG, "Could not register the engine metrics: " + e.getMessage());
+        }
+    }
+
+    public void recordExecute(BoardAction action, long nanos, int events) {
+        executeLatency.get(action).record(nanos);
+        eventsPerRequest.record(events);
+    }
+
+    public void recordCascade(int openedCells) {
+        cascadeSizes.record(openedCells);
+    }
+
+    public void recordGeneration(long nanos) {
+        generationTime.record(nanos);
+    }
+
+    public void gameStarted() {
+        gamesStarted.increment();
+    }
+
+    public void gameWon() {
+        gamesWon.increment();
+    }
+
+    public void gameLost() {
+        gamesLost.increment();
+    }
+
+    public void mouseEvent() {
+        mouseEvents.increment();
+    }
+
+    public EngineMetricsSnapshot snapshot() {
+        EnumMap<BoardAction, HistogramSnapshot> latency = new EnumMap<>(BoardAction.class);
+        for (BoardAction action : BoardAction.values()) latency.put(action, executeLatency.get(action).snapshot());
+        return new EngineMetricsSnapshot(latency, eventsPerRequest.snapshot(), cascadeSizes.snapshot(),
+                generationTime.snapshot(), gamesStarted.sum(), gamesWon.sum(), gamesLost.sum(), mouseEvents.sum());
+    }
+
+    @Override
+    public long getGamesStarted() {
+        return gamesStarted.sum();
+    }
+
+    @Override
+    public long getGamesWon() {
+        return gamesWon.sum();
+    }
+
+    @Override
+    public long getGamesLost() {
+        return gamesLost.sum();
+    }
+
+    @Override
+    public long getRequests() {
+        return eventsPerRequest.snapshot().getCount();
+    }
+
+    @Override
+    public long getMouseEvents() {
+        return mouseEvents.sum();
+    }
+
+    @Override
+    public long getOpenLatencyP99Micros() {
+        return latencyP99Micros(BoardAction.OPEN);
+    }
+
+    @Override
+    public long getOpenNeighboursLatencyP99Micros() {
+        return latencyP99Micros(BoardAction.OPEN_NEIGHBOURS);
+    }
+
+    @Override
+    public long getMarkLatencyP99Micros() {
+        return latencyP99Micros(BoardAction.MARK);
+    }
+
+    @Override
+    public long getMaxExecuteLatencyMicros() {
+        long max = 0;
+        for (Histogram latency : executeLatency.values()) max = Math.max(max, latency.snapshot().getMax());
+        return TimeUnit.NANOSECONDS.toMicros(max);
+    }
+
+    @Override
+    public double getEventsPerRequestMean() {
+        return eventsPerRequest.snapshot().getMean();
+    }
+
+    @Override
+    public long getCascadeSizeP99() {
+        return cascadeSizes.snapshot().getValueAtPercentile(99);
+    }
+
+    @Override
+    public long getCascadeSizeMax() {
+        return cascadeSizes.snapshot().getMax();
+    }
+
+    @Override
+    public double getGenerationMillisMean() {
+        return generationTime.snapshot().getMean() / 1_000_000.0;
+    }
+
+    @Override
+    public double getGenerationMillisMax() {
+        return generationTime.snapshot().getMax() / 1_000_000.0;
+    }
+
+    @Override
+    public String[] getSummary() {
+        return snapshot().summary();
+    }
+
+    @Override
+    public void reset() {
+        for (Histogram latency : executeLatency.values()) latency.reset();
+        eventsPerRequest.reset();
+        cascadeSizes.reset();
+        generationTime.reset();
+        gamesStarted.reset();
+        gamesWon.reset();
+        gamesLost.reset();
+        mouseEvents.reset();
+    }
+
+    private long latencyP99Micros(BoardAction action) {
+        return TimeUnit.NANOSECONDS.toMicros(executeLatency.get(action).snapshot().getValueAtPercentile(99));
+    }
+}
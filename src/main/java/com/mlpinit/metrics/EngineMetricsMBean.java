@@ -0,0 +1,37 @@
+package com.mlpinit.metrics;
+
+// Attributes and operations of EngineMetrics as seen from a JMX console. Latencies are in microseconds.
+public interface EngineMetricsMBean {
+    long getGamesStarted();
+
+    long getGamesWon();
+
+    long getGamesLost();
+
+    long getRequests();
+
+    long getMouseEvents();
+
+    long getOpenLatencyP99Micros();
+
+    long getOpenNeighboursLatencyP99Micros();
+
+    long getMarkLatencyP99Micros();
+
+    long getMaxExecuteLatencyMicros();
+
+    double getEventsPerRequestMean();
+
+    long getCascadeSizeP99();
+
+    long getCascadeSizeMax();
+
+    double getGenerationMillisMean();
+
+    double getGenerationMillisMax();
+
+    // One line per histogram, the same as EngineMetricsSnapshot.toString().
+    String[] getSummary();
+
+    void reset();
+}
@@ -0,0 +1,90 @@
+package com.mlpinit.metrics;
+
+import com.mlpinit.models.BoardAction;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+// Metrics of the engine at one point in time. Latencies and generation times are in nanoseconds.
+public class EngineMetricsSnapshot {
+    private final Map<BoardAction, HistogramSnapshot> executeLatency;
+    private final HistogramSnapshot eventsPerRequest;
+    private final HistogramSnapshot cascadeSizes;
+    private final HistogramSnapshot generationTime;
+    private final long gamesStarted;
+    private final long gamesWon;
+    private final long gamesLost;
+    private final long mouseEvents;
+
+    EngineMetricsSnapshot(EnumMap<BoardAction, HistogramSnapshot> executeLatency,
+                          HistogramSnapshot eventsPerRequest, HistogramSnapshot cascadeSizes,
+                          HistogramSnapshot generationTime, long gamesStarted, long gamesWon, long gamesLost,
+                          long mouseEvents) {
+        this.executeLatency = Collections.unmodifiableMap(executeLatency);
+        this.eventsPerRequest = eventsPerRequest;
+        this.cascadeSizes = cascadeSizes;
+        this.generationTime = generationTime;
+        this.gamesStarted = gamesStarted;
+        this.gamesWon = gamesWon;
+        this.gamesLost = gamesLost;
+        this.mouseEvents = mouseEvents;
+    }
+
+    public HistogramSnapshot getExecuteLatency(BoardAction action) {
+        return executeLatency.get(action);
+    }
+
+    public long getRequests() {
+        long requests = 0;
+        for (HistogramSnapshot latency : executeLatency.values()) requests += latency.getCount();
+        return requests;
+    }
+
+    public HistogramSnapshot getEventsPerRequest() {
+        return eventsPerRequest;
+    }
+
+    // Number of cells opened by every click that started a cascade.
+    public HistogramSnapshot getCascadeSizes() {
+        return cascadeSizes;
+    }
+
+    public HistogramSnapshot getGenerationTime() {
+        return generationTime;
+    }
+
+    public long getGamesStarted() {
+        return gamesStarted;
+    }
+
+    public long getGamesWon() {
+        return gamesWon;
+    }
+
+    public long getGamesLost() {
+        return gamesLost;
+    }
+
+    public long getMouseEvents() {
+        return mouseEvents;
+    }
+
+    String[] summary() {
+        String[] lines = new String[executeLatency.size() + 4];
+        int line = 0;
+        for (Map.Entry<BoardAction, HistogramSnapshot> entry : executeLatency.entrySet()) {
+            lines[line++] = "execute " + entry.getKey() + " (ns): " + entry.getValue();
+        }
+        lines[line++] = "events per request: " + eventsPerRequest;
+        lines[line++] = "cascade size: " + cascadeSizes;
+        lines[line++] = "generation (ns): " + generationTime;
+        lines[line] = "games started: " + gamesStarted + ", won: " + gamesWon + ", lost: " + gamesLost +
+                ", mouse events: " + mouseEvents;
+        return lines;
+    }
+
+    public String toString() {
+        return String.join("\n", summary());
+    }
+}
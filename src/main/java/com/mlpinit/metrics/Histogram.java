@@ -0,0 +1,85 @@
+package com.mlpinit.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Lock free histogram of non negative longs with log linear buckets, in the style of HdrHistogram: values
+ * below SUB_BUCKETS get a bucket each, above that every power of two is split into SUB_BUCKETS equal buckets,
+ * so any recorded value is known to within 1 / SUB_BUCKETS (about 6%). Recording is a single atomic increment
+ * plus two striped adders, so it is cheap enough to leave on while playing.
+ *
+ * The buckets are striped as well: every thread counts into one of STRIPES bucket arrays, picked by a hash of
+ * its id, so threads recording at the same time (the event loops of the game server) rarely share a cache
+ * line. Snapshots add the stripes up.
+ */
+public class Histogram {
+    static final int SUB_BUCKET_BITS = 4;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    static final int BUCKETS = SUB_BUCKETS + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+    // A power of two of at least the number of cores, at most 16 arrays of 7.5 kB each.
+    static final int STRIPES = Math.min(16, Integer.highestOneBit(
+            Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)));
+
+    private final AtomicLongArray[] counts = new AtomicLongArray[STRIPES];
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public Histogram() {
+        for (int stripe = 0; stripe < STRIPES; stripe++) counts[stripe] = new AtomicLongArray(BUCKETS);
+    }
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts[stripe()].incrementAndGet(bucket(value));
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    /*
+     * Copies the current counts. Recording continues meanwhile, so a snapshot taken under load may include a
+     * value in its buckets but not yet in its sum.
+     */
+    public HistogramSnapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (AtomicLongArray stripe : counts) {
+            for (int i = 0; i < BUCKETS; i++) copy[i] += stripe.get(i);
+        }
+        return new HistogramSnapshot(copy, sum.sum(), max.get());
+    }
+
+    public void reset() {
+        for (AtomicLongArray stripe : counts) {
+            for (int i = 0; i < BUCKETS; i++) stripe.set(i, 0);
+        }
+        sum.reset();
+        max.reset();
+    }
+
+    // Fibonacci hash of the thread id, consecutive ids land on different stripes.
+    private static int stripe() {
+        long hash = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & (STRIPES - 1);
+    }
+
+    static int bucket(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + mantissa;
+    }
+
+    static long lowestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        int mantissa = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + mantissa) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    static long highestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        return lowestValue(bucket) + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
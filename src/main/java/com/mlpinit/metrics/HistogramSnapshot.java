@@ -0,0 +1,54 @@
+package com.mlpinit.metrics;
+
+// Immutable copy of a Histogram.
+public class HistogramSnapshot {
+    private final long[] counts;
+    private final long count;
+    private final long sum;
+    private final long max;
+
+    HistogramSnapshot(long[] counts, long sum, long max) {
+        this.counts = counts;
+        long count = 0;
+        for (long bucketCount : counts) count += bucketCount;
+        this.count = count;
+        this.sum = sum;
+        this.max = max;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /*
+     * Highest value of the bucket that holds the given percentile (0 - 100), never more than the largest
+     * recorded value. Returns 0 for an empty histogram.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(count * Math.min(100, percentile) / 100));
+        long seen = 0;
+        for (int bucket = 0; bucket < counts.length; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) return Math.min(max, Histogram.highestValue(bucket));
+        }
+        return max;
+    }
+
+    public String toString() {
+        return String.format("count: %d, mean: %.1f, p50: %d, p99: %d, max: %d", count, getMean(),
+                getValueAtPercentile(50), getValueAtPercentile(99), max);
+    }
+}
@@ -1,22 +1,44 @@
 package com.mlpinit.models;
 
+import com.mlpinit.metrics.EngineMetrics;
 import com.mlpinit.utils.Log;
 import rx.Observable;
 import rx.subjects.PublishSubject;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.Arrays;
+import java.util.SplittableRandom;
 
 public class Board {
     private static final String TAG = "[Board]";
+    private static final EngineMetrics metrics = EngineMetrics.get();
+    // Visible value of cells that are closed or marked.
+    public static final int HIDDEN = -2;
+    private static final int[] NEIGHBOUR_ROW_OFFSETS = {-1, -1, -1, 0, 0, 1, 1, 1};
+    private static final int[] NEIGHBOUR_COLUMN_OFFSETS = {-1, 0, 1, -1, 1, -1, 0, 1};
     public State state = State.NOT_STARTED;
 
     private int height;
     private int width;
     private int nrOfMines;
+    private long seed;
     private int remainingMines;
-    private Cell[][] board = null;
+    private int mineCount;
+    private int closedSafeCells;
+    private int correctMarks;
+    private int wrongMarks;
+    // Requests executed in the current game.
+    private int moves;
+    private CellGrid grid = null;
+    // Storage of the previous game, cleared and handed to the next one generated after a reset.
+    private CellGrid spareGrid = null;
+    private BoardGenerator generator = new BoardGenerator();
+    private int[] cascadePositions = new int[64];
+    private byte[] cascadeDirections = new byte[64];
+    // Changes of the request being executed, only collected while somebody listens for batched updates.
+    private BoardUpdate.Builder update = new BoardUpdate.Builder();
+    private boolean collectingUpdate = false;
+    // Cell events and batches published by the request being executed.
+    private int requestEvents = 0;
 
 
     /* Private subjects */
@@ -28,6 +50,7 @@ public class Board {
     private PublishSubject<Boolean> gameIsRunningSubject = PublishSubject.create();
     private PublishSubject<Integer> remainingMinesSubject = PublishSubject.create();
     private PublishSubject<Void> gameWonSubject = PublishSubject.create();
+    private PublishSubject<BoardUpdate> boardUpdateSubject = PublishSubject.create();
 
     /* Public observables */
     public Observable<Cell> openCellObservable = openCellSubject.share();
@@ -38,233 +61,491 @@ public class Board {
     public Observable<Boolean> gameIsRunningObservable = gameIsRunningSubject.share();
     public Observable<Integer> remainingMinesObservable = remainingMinesSubject.share();
     public Observable<Void> gameWonObservable = gameWonSubject.share();
+    // One batch with all changes per executed BoardRequest.
+    public Observable<BoardUpdate> boardUpdateObservable = boardUpdateSubject.share();
 
 
     public Board(int height, int width, int nrOfMines) {
+        this(height, width, nrOfMines, new SplittableRandom().nextLong());
+    }
+
+    // Boards created with the same dimensions, number of mines and seed are identical for the same first click.
+    public Board(int height, int width, int nrOfMines, long seed) {
         this.height = height;
         this.width = width;
         this.nrOfMines = nrOfMines;
         this.remainingMines = nrOfMines;
+        this.seed = seed;
     }
 
     public Board() {
         // default settings
-        this.height = 16;
-        this.width = 30;
-        this.nrOfMines = 100;
-        this.remainingMines = 100;
+        this(16, 30, 100);
+    }
+
+    // Starts a new game with the same settings and a new seed. Subscribers stay attached and the cell storage
+    // is reused, so restarting allocates nothing proportional to the board.
+    public void reset() {
+        reset(new SplittableRandom().nextLong());
+    }
+
+    public void reset(long seed) {
+        boolean wasRunning = state == State.STARTED;
+        if (grid != null) {
+            grid.clear();
+            spareGrid = grid;
+            grid = null;
+        }
+        this.seed = seed;
+        state = State.NOT_STARTED;
+        remainingMines = nrOfMines;
+        mineCount = 0;
+        closedSafeCells = 0;
+        correctMarks = 0;
+        wrongMarks = 0;
+        moves = 0;
+        if (wasRunning) gameIsRunningSubject.onNext(false);
+        remainingMinesSubject.onNext(remainingMines);
+        if (boardUpdateSubject.hasObservers()) {
+            update.clear(width);
+            update.reset();
+            boardUpdateSubject.onNext(update.build(getStats()));
+        }
     }
 
     public void execute(BoardRequest boardRequest) {
+        long startNanos = System.nanoTime();
+        requestEvents = 0;
+        collectingUpdate = boardUpdateSubject.hasObservers();
+        if (collectingUpdate) update.clear(width);
+        if (boardRequest.getActionType() != null && state != State.GAME_OVER) moves++;
         if (boardRequest.getActionType() == BoardAction.OPEN) {
             open(boardRequest.getX(), boardRequest.getY());
         } else if (boardRequest.getActionType() == BoardAction.MARK) {
             toggleMark(boardRequest.getX(), boardRequest.getY());
         } else if (boardRequest.getActionType() == BoardAction.OPEN_NEIGHBOURS) {
-            Log.debug(TAG, "Opening Neighbours from: " + boardRequest.getCoordinate() + ".");
+            Log.debug(TAG, () -> "Opening Neighbours from: " + boardRequest.getCoordinate() + ".");
             openNeighbours(boardRequest.getX(), boardRequest.getY());
         }
+        if (collectingUpdate) {
+            collectingUpdate = false;
+            boardUpdateSubject.onNext(update.build(getStats()));
+            requestEvents++;
+        }
+        if (boardRequest.getActionType() != null) {
+            metrics.recordExecute(boardRequest.getActionType(), System.nanoTime() - startNanos, requestEvents);
+        }
     }
 
     public void open(int x, int y) {
         if (state == State.NOT_STARTED) {
             setupBoard(x, y);
             gameIsRunningSubject.onNext(true);
-            Log.debug(TAG, toString());
+            Log.debug(TAG, this::toString);
         }
-        open(cellAtPosition(x, y));
+        if (!grid.contains(x, y)) return;
+        open(grid.position(x, y));
+        checkAndUpdateStatusIfGameWon();
     }
 
-    private void open(Cell cell) {
-        if (!cell.isClosed()) return;
+    private void open(int position) {
+        if (!grid.isClosed(position)) return;
         if (state == State.GAME_OVER) return;
+        if (reveal(position)) {
+            int closedBefore = closedSafeCells + 1;
+            cascade(position);
+            metrics.recordCascade(closedBefore - closedSafeCells);
+        }
+    }
 
-        cell.open();
-        if (cell.isMine()) {
-            openMineCellSubject.onNext(cell);
+    /*
+     * Opens the region of empty cells around origin with an explicit stack instead of recursion, so that large
+     * empty regions can not overflow the call stack. Each frame remembers the next neighbour direction to visit,
+     * which keeps the order cells are opened (and published) identical to a recursive depth first traversal.
+     */
+    private void cascade(int origin) {
+        int top = 0;
+        cascadePositions[top] = origin;
+        cascadeDirections[top] = 0;
+        while (top >= 0) {
+            if (state == State.GAME_OVER) return;
+            int direction = cascadeDirections[top];
+            if (direction == NEIGHBOUR_ROW_OFFSETS.length) {
+                top--;
+                continue;
+            }
+            cascadeDirections[top]++;
+            int position = cascadePositions[top];
+            int neighbourX = position / width + NEIGHBOUR_ROW_OFFSETS[direction];
+            int neighbourY = position % width + NEIGHBOUR_COLUMN_OFFSETS[direction];
+            if (!grid.contains(neighbourX, neighbourY)) continue;
+            int neighbour = grid.position(neighbourX, neighbourY);
+            if (!grid.isClosed(neighbour)) continue;
+            if (reveal(neighbour)) {
+                top++;
+                if (top == cascadePositions.length) growCascadeStack();
+                cascadePositions[top] = neighbour;
+                cascadeDirections[top] = 0;
+            }
+        }
+    }
+
+    private void growCascadeStack() {
+        cascadePositions = Arrays.copyOf(cascadePositions, cascadePositions.length * 2);
+        cascadeDirections = Arrays.copyOf(cascadeDirections, cascadeDirections.length * 2);
+    }
+
+    // Opens a single closed cell and returns true when its neighbours have to be opened as well.
+    private boolean reveal(int position) {
+        grid.open(position);
+        if (grid.isMine(position)) {
+            publish(openMineCellSubject, position);
+            if (collectingUpdate) {
+                update.mine(position);
+                update.gameLost();
+            }
             state = State.GAME_OVER;
+            metrics.gameLost();
             gameIsRunningSubject.onNext(false);
             setEndGameCellState();
             Log.debug(TAG, "GAME OVER");
-        } else {
-            openCellSubject.onNext(cell);
+            return false;
+        }
+        closedSafeCells--;
+        publish(openCellSubject, position);
+        if (collectingUpdate) update.opened(position, grid.getValue(position));
+        if (Log.isDebugEnabled()) {
+            Log.debug(TAG, "Opening cell with state " + grid.getState(position) + " at: " +
+                    new Coordinate(position / width, position % width) + ".");
+        }
+        return grid.isEmpty(position);
+    }
 
-            Log.debug(TAG, "Opening cell with state " + cell.getState() + " at: " + cell.getCoordinate() + ".");
-            if (cell.isEmpty()) {
-                List<Cell> neighbours = neighbours(cell.getX(), cell.getY());
-                for (Cell neighbour : neighbours) open(neighbour);
-            }
+    // Cell views are only created when somebody is listening for them.
+    private void publish(PublishSubject<Cell> subject, int position) {
+        if (subject.hasObservers()) {
+            subject.onNext(grid.cellAt(position));
+            requestEvents++;
         }
-        checkAndUpdateStatusIfGameWon();
     }
 
     public void openNeighbours(int x, int y) {
-        Cell currentCell = cellAtPosition(x, y);
-        if (!currentCell.isOpened()) return;
-        List<Cell> neighbours = neighbours(x, y);
-        List<Cell> markedNeighbours = new ArrayList<>();
-        List<Cell> nonMarkedNeighbours = new ArrayList<>();
-        // separate marked neighbours from non marked neighbours
-        for (Cell neighbour : neighbours) {
-            if (neighbour.isMarked()) {
-                markedNeighbours.add(neighbour);
-            } else {
-                nonMarkedNeighbours.add(neighbour);
+        if (grid == null || !grid.contains(x, y)) return;
+        int position = grid.position(x, y);
+        if (!grid.isOpened(position)) return;
+        int markedNeighbours = 0;
+        for (int direction = 0; direction < NEIGHBOUR_ROW_OFFSETS.length; direction++) {
+            int neighbourX = x + NEIGHBOUR_ROW_OFFSETS[direction];
+            int neighbourY = y + NEIGHBOUR_COLUMN_OFFSETS[direction];
+            if (grid.contains(neighbourX, neighbourY) && grid.isMarked(grid.position(neighbourX, neighbourY))) {
+                markedNeighbours++;
             }
         }
         // only open neighbours if the correct number of mines has been marked around the current cell
-        if (markedNeighbours.size() == currentCell.getValue()) {
-            for (Cell neighbour : nonMarkedNeighbours) open(neighbour);
+        if (markedNeighbours == grid.getValue(position)) {
+            for (int direction = 0; direction < NEIGHBOUR_ROW_OFFSETS.length; direction++) {
+                int neighbourX = x + NEIGHBOUR_ROW_OFFSETS[direction];
+                int neighbourY = y + NEIGHBOUR_COLUMN_OFFSETS[direction];
+                if (grid.contains(neighbourX, neighbourY)) open(grid.position(neighbourX, neighbourY));
+            }
+            checkAndUpdateStatusIfGameWon();
         } else {
             Log.debug(TAG, "Attempting to open neighbours with insufficient marks.");
         }
     }
+
     public void toggleMark(int x, int y) {
         if (state == State.GAME_OVER) return;
-        Cell cell = board[x][y];
-        if (cell == null) return;
-        if (cell.isOpened()) return;
-        if (cell.isMarked()) {
-            cell.unsetMark();
-            removeCellMarkSubject.onNext(cell);
+        if (grid == null || !grid.contains(x, y)) return;
+        int position = grid.position(x, y);
+        if (grid.isOpened(position)) return;
+        if (grid.isMarked(position)) {
+            grid.unsetMark(position);
+            publish(removeCellMarkSubject, position);
+            if (collectingUpdate) update.unmarked(position);
             remainingMines++;
+            if (grid.isMine(position)) correctMarks--; else wrongMarks--;
         } else {
-            cell.setMark();
+            grid.setMark(position);
             remainingMines--;
-            markCellSubject.onNext(cell);
+            if (grid.isMine(position)) correctMarks++; else wrongMarks++;
+            publish(markCellSubject, position);
+            if (collectingUpdate) update.marked(position);
         }
         remainingMinesSubject.onNext(remainingMines);
         checkAndUpdateStatusIfGameWon();
     }
 
+    /*
+     * Compatibility view of the board as Cell objects. The cells are views over the packed grid created on
+     * every call, so prefer the position based accessors for anything that runs often.
+     */
     public Cell[][] getBoard() {
-        return board;
+        if (grid == null) return null;
+        Cell[][] cells = new Cell[height][width];
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                cells[i][j] = grid.cellAt(grid.position(i, j));
+            }
+        }
+        return cells;
     }
 
     public State getState() {
         return state;
     }
 
-    @Override
-    public String toString() {
-        StringBuilder representation = new StringBuilder(height * width + height + 1);
-        representation.append("\n");
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                representation.append(String.format("%3d", board[i][j].getValue()));
+    // Value of an opened cell or HIDDEN, so players and bots only ever see what is on screen.
+    public int getVisibleValue(int x, int y) {
+        if (grid == null || !grid.contains(x, y)) return HIDDEN;
+        int position = grid.position(x, y);
+        return grid.isOpened(position) ? grid.getValue(position) : HIDDEN;
+    }
+
+    public boolean isMarked(int x, int y) {
+        return grid != null && grid.contains(x, y) && grid.isMarked(grid.position(x, y));
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getNrOfMines() {
+        return nrOfMines;
+    }
+
+    public int getMoves() {
+        return moves;
+    }
+
+    public boolean isGameWon() {
+        return state == State.GAME_OVER && gameWon();
+    }
+
+    /*
+     * The 3BV of the board: the least number of clicks that clears it, one per opening (a connected region of
+     * empty cells together with its numbered border) plus one per numbered cell outside every opening.
+     * Returns -1 before the board is generated.
+     */
+    public int getThreeBV() {
+        if (grid == null) return -1;
+        boolean[] covered = new boolean[grid.size()];
+        int[] stack = new int[64];
+        int threeBV = 0;
+        for (int position = 0; position < grid.size(); position++) {
+            if (covered[position] || !grid.isEmpty(position)) continue;
+            threeBV++;
+            covered[position] = true;
+            int top = 0;
+            stack[0] = position;
+            while (top >= 0) {
+                int current = stack[top--];
+                if (!grid.isEmpty(current)) continue;
+                int x = current / width;
+                int y = current % width;
+                for (int direction = 0; direction < NEIGHBOUR_ROW_OFFSETS.length; direction++) {
+                    int neighbourX = x + NEIGHBOUR_ROW_OFFSETS[direction];
+                    int neighbourY = y + NEIGHBOUR_COLUMN_OFFSETS[direction];
+                    if (!grid.contains(neighbourX, neighbourY)) continue;
+                    int neighbour = grid.position(neighbourX, neighbourY);
+                    if (covered[neighbour]) continue;
+                    covered[neighbour] = true;
+                    if (++top == stack.length) stack = Arrays.copyOf(stack, stack.length * 2);
+                    stack[top] = neighbour;
+                }
             }
-            representation.append(("\n"));
         }
-        return representation.toString();
+        for (int position = 0; position < grid.size(); position++) {
+            if (!covered[position] && !grid.isMine(position)) threeBV++;
+        }
+        return threeBV;
     }
 
-    private void setupBoard(int x, int y) {
-        board = new Cell[height][width];
-        ArrayList<Integer> positions = new ArrayList<>(height * width);
-        for (int i = 0; i < height * width; i++) {
-            positions.add(i);
+    public long getSeed() {
+        return seed;
+    }
+
+    // Replaces the way mines are placed on the first click, for example to only produce boards without guesses.
+    public void setGenerator(BoardGenerator generator) {
+        if (state != State.NOT_STARTED) throw new IllegalStateException("The board has already been generated.");
+        this.generator = generator;
+    }
+
+    public BoardGenerator getGenerator() {
+        return generator;
+    }
+
+    // Copies the complete state of the game. The elapsed time is kept by the caller's timer.
+    public GameSnapshot snapshot(long elapsedMillis) {
+        byte[] cells = grid == null ? new byte[0] : grid.copyCells();
+        return new GameSnapshot(height, width, nrOfMines, seed, state, remainingMines, elapsedMillis, cells);
+    }
+
+    public static Board restore(GameSnapshot snapshot) {
+        Board board = new Board(snapshot.getHeight(), snapshot.getWidth(), snapshot.getNrOfMines(),
+                snapshot.getSeed());
+        board.load(snapshot);
+        return board;
+    }
+
+    // Replaces the game with a snapshot of a board of the same dimensions, copying the cells into the current
+    // storage instead of allocating a new grid. Batch subscribers get a reset update carrying every visible cell.
+    public void load(GameSnapshot snapshot) {
+        if (snapshot.getHeight() != height || snapshot.getWidth() != width) {
+            throw new IllegalArgumentException("Snapshot of a " + snapshot.getHeight() + "x" + snapshot.getWidth()
+                    + " board loaded into a " + height + "x" + width + " board.");
         }
-        Collections.shuffle(positions);
-        // Make sure that the first position clicked is never a mine.
-        // Replace it with a different position if it is a mine.
-        int firstClickedPosition = x * width + y;
-        for (int i = 0; i < nrOfMines; i++) {
-            if (positions.get(i) == firstClickedPosition) {
-                positions.set(i, positions.get(nrOfMines));
+        if (snapshot.getState() == State.NOT_STARTED) {
+            if (grid != null) {
+                grid.clear();
+                spareGrid = grid;
+                grid = null;
             }
-        }
-        // set mines value to Cell.MINE
-        for (int i = 0; i < nrOfMines; i++) {
-            int position = positions.get(i);
-            int row =  position / width;
-            int column = position % width;
-            Coordinate coordinate = new Coordinate(row, column);
-            board[row][column] = new Cell(coordinate, Cell.MINE);
-        }
-        // set value to the count of neighbouring mines
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                if (board[i][j] == null) {
-                    Coordinate coordinate = new Coordinate(i, j);
-                    board[i][j] = new Cell(coordinate, neighboursCount(i, j));
-                }
+        } else {
+            if (grid == null) {
+                grid = spareGrid != null ? spareGrid : new CellGrid(height, width);
+                spareGrid = null;
             }
+            grid.loadCells(snapshot.getCells());
+            resetCounters();
+        }
+        nrOfMines = snapshot.getNrOfMines();
+        seed = snapshot.getSeed();
+        state = snapshot.getState();
+        remainingMines = snapshot.getRemainingMines();
+        moves = 0;
+        remainingMinesSubject.onNext(remainingMines);
+        if (boardUpdateSubject.hasObservers()) {
+            update.clear(width);
+            update.reset();
+            if (grid != null) collectVisibleCells();
+            boardUpdateSubject.onNext(update.build(getStats()));
         }
-        state = State.STARTED;
     }
 
-    private List<Cell> neighbours(int x, int y) {
-        ArrayList<Cell> neighbours = new ArrayList();
-        addCell(x - 1, y - 1, neighbours);
-        addCell(x - 1, y, neighbours);
-        addCell(x - 1, y + 1, neighbours);
-        addCell(x, y - 1, neighbours);
-        addCell(x, y + 1, neighbours);
-        addCell(x + 1, y - 1, neighbours);
-        addCell(x + 1, y, neighbours);
-        addCell(x + 1, y + 1, neighbours);
-        return neighbours;
+    // Adds every opened and marked cell to the update, the way a finished game shows its mines and wrong marks.
+    private void collectVisibleCells() {
+        for (int position = 0; position < grid.size(); position++) {
+            boolean mine = grid.isMine(position);
+            if (grid.isOpened(position)) {
+                if (mine) update.mine(position); else update.opened(position, grid.getValue(position));
+            } else if (grid.isMarked(position)) {
+                update.marked(position);
+                if (!mine && state == State.GAME_OVER) update.incorrectMark(position);
+            }
+        }
     }
 
-    private void addCell(int x, int y, ArrayList<Cell> neighbours) {
-        Cell cell = cellAtPosition(x , y);
-        if (cell != null) neighbours.add(cell);
+    public BoardStats getStats() {
+        int cells = grid == null ? height * width : grid.size();
+        int mines = grid == null ? nrOfMines : mineCount;
+        int closedSafe = grid == null ? cells - mines : closedSafeCells;
+        return new BoardStats(cells, mines, remainingMines, closedSafe, correctMarks, wrongMarks);
     }
 
-    private int neighboursCount(int x, int y) {
-        int counter = 0;
-        for (Cell cell : neighbours(x, y)) if (cell.isMine()) counter++;
-        return counter;
+    @Override
+    public String toString() {
+        StringBuilder representation = new StringBuilder(3 * height * width + height + 1);
+        representation.append("\n");
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                int value = grid.getValue(grid.position(i, j));
+                // right aligned in three characters, values are between -1 and 8
+                representation.append(value < 0 ? " " : "  ").append(value);
+            }
+            representation.append(("\n"));
+        }
+        return representation.toString();
     }
 
-    private Cell cellAtPosition(int x, int y) {
-        if (x < 0) return null;
-        if (y < 0) return null;
-        if (x >= height) return null;
-        if (y >= width) return null;
-        return board[x][y];
+    private void setupBoard(int x, int y) {
+        long startNanos = System.nanoTime();
+        grid = spareGrid != null ? spareGrid : new CellGrid(height, width);
+        spareGrid = null;
+        // The first position clicked is never a mine.
+        generator.generate(grid, nrOfMines, seed, x * width + y);
+        metrics.recordGeneration(System.nanoTime() - startNanos);
+        metrics.gameStarted();
+        mineCount = nrOfMines;
+        closedSafeCells = grid.size() - nrOfMines;
+        correctMarks = 0;
+        wrongMarks = 0;
+        state = State.STARTED;
     }
 
     private void setEndGameCellState() {
         Log.debug(TAG, "SET END GAME STATE IS CALLED");
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                Cell cell = board[i][j];
-                if (cell.isMine() && !cell.isOpened() && !cell.isMarked()) {
-                    cell.open();
-                    openMineCellSubject.onNext(cell);
-                } else if (!cell.isMine() && cell.isMarked()) {
-                    incorrectMarkCellSubject.onNext(cell);
-                }
+        for (int position = 0; position < grid.size(); position++) {
+            if (grid.isMine(position) && !grid.isOpened(position) && !grid.isMarked(position)) {
+                grid.open(position);
+                publish(openMineCellSubject, position);
+                if (collectingUpdate) update.mine(position);
+            } else if (!grid.isMine(position) && grid.isMarked(position)) {
+                publish(incorrectMarkCellSubject, position);
+                if (collectingUpdate) update.incorrectMark(position);
             }
         }
     }
 
+    /*
+     * The game is won once every cell is either opened or marked, which with the live counters means that
+     * every mine carries a mark and the only closed safe cells left are the wrongly marked ones.
+     */
     private boolean gameWon() {
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                if (!board[i][j].isOpened() && !board[i][j].isMarked()) return false;
+        return closedSafeCells == wrongMarks && correctMarks == mineCount;
+    }
+
+    // Recomputes the counters from the grid. Only needed when the grid is replaced as a whole.
+    private void resetCounters() {
+        mineCount = 0;
+        closedSafeCells = 0;
+        correctMarks = 0;
+        wrongMarks = 0;
+        for (int position = 0; position < grid.size(); position++) {
+            boolean mine = grid.isMine(position);
+            if (mine) {
+                mineCount++;
+            } else if (!grid.isOpened(position)) {
+                closedSafeCells++;
+            }
+            if (grid.isMarked(position)) {
+                if (mine) correctMarks++; else wrongMarks++;
             }
         }
-        return true;
     }
+
     private void checkAndUpdateStatusIfGameWon() {
+        if (state == State.GAME_OVER) return;
         if (remainingMines == 0) {
             if (gameWon()) {
                 state = State.GAME_OVER;
+                metrics.gameWon();
                 gameIsRunningSubject.onNext(false);
                 gameWonSubject.onNext(null);
+                if (collectingUpdate) update.gameWon();
             }
         }
     }
 
-    enum State {
+    public enum State {
         NOT_STARTED, STARTED, GAME_OVER
     }
 
-    // Used only for testing.
+    // Used only for testing. The given cells become views of the board's grid.
     public void setBoard(Cell[][] board) {
         state = State.STARTED;
-        this.board = board;
+        this.height = board.length;
+        this.width = board[0].length;
+        this.grid = new CellGrid(height, width);
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                board[i][j].attach(grid, grid.position(i, j));
+            }
+        }
+        resetCounters();
     }
 }
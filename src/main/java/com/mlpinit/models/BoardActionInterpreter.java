@@ -8,7 +8,6 @@ import java.awt.event.MouseEvent;
 
 public class BoardActionInterpreter {
     private static final String TAG = "[BoardActionInterpreter]";
-    private static BoardActionInterpreter instance = null;
 
     private Coordinate actionableCoordinate = null;
     private Integer penUltimatePress = null;
@@ -23,11 +22,16 @@ public class BoardActionInterpreter {
     private BoardActionInterpreter() {
     }
 
+    // Every game gets its own interpreter, so requests never reach the subscribers of an earlier one.
     public static BoardActionInterpreter create() {
-        if (instance == null) {
-            instance = new BoardActionInterpreter();
-        }
-        return instance;
+        return new BoardActionInterpreter();
+    }
+
+    // Forgets a press in progress, for example when the game is restarted between press and release.
+    public void reset() {
+        actionableCoordinate = null;
+        penUltimatePress = null;
+        ultimatePress = null;
     }
 
     public void addEvent(MouseButtonEvent event) {
@@ -48,7 +52,8 @@ public class BoardActionInterpreter {
                 } else if (isOpenCell()) {
                     actionType = BoardAction.OPEN;
                 }
-                Log.debug(TAG, "Sending request to " + actionType + ". Cell: " + actionableCoordinate);
+                BoardAction requestedAction = actionType;
+                Log.debug(TAG, () -> "Sending request to " + requestedAction + ". Cell: " + actionableCoordinate);
                 observedByBoard.onNext(new BoardRequest(actionableCoordinate, actionType));
                 penUltimatePress = null;
                 ultimatePress = null;
@@ -0,0 +1,175 @@
+package com.mlpinit.models;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Generates the cell values of a board. The board is split into bands of BAND_ROWS rows. The number of mines
+ * of every band is drawn up front so that the whole board stays uniformly random, then every band places its
+ * mines with its own random generator split from the seed. Because bands never depend on each other the work
+ * can run on the common ForkJoinPool, and the sequential and parallel paths produce exactly the same board for
+ * the same seed.
+ */
+public class BoardGenerator {
+    static final int BAND_ROWS = 64;
+    // Below this many cells forking costs more than it saves.
+    public static final int PARALLEL_THRESHOLD = 1 << 18;
+    // Natural logarithms of the small factorials, larger ones come from Stirling's series.
+    private static final double[] LOG_FACTORIALS = new double[256];
+    static {
+        for (int n = 2; n < LOG_FACTORIALS.length; n++) LOG_FACTORIALS[n] = LOG_FACTORIALS[n - 1] + Math.log(n);
+    }
+
+    /*
+     * Fills every cell value of the grid, which must not have opened or marked cells. The cell at
+     * firstClickPosition is never a mine; with a negative position every cell can hold one.
+     */
+    public void generate(CellGrid grid, int nrOfMines, long seed, int firstClickPosition) {
+        MineField mineField = placeMines(grid.getHeight(), grid.getWidth(), nrOfMines, seed, firstClickPosition,
+                grid.size() >= PARALLEL_THRESHOLD);
+        writeCounts(mineField, grid, grid.size() >= PARALLEL_THRESHOLD);
+    }
+
+    MineField placeMines(int height, int width, int nrOfMines, long seed, int firstClickPosition,
+                         boolean parallel) {
+        int available = height * width - (firstClickPosition < 0 ? 0 : 1);
+        if (nrOfMines < 0 || nrOfMines > available) {
+            throw new IllegalArgumentException("Can not place " + nrOfMines + " mines on " + available + " cells.");
+        }
+        int bands = (height + BAND_ROWS - 1) / BAND_ROWS;
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] minesPerBand = drawMinesPerBand(height, width, nrOfMines, firstClickPosition, bands, random);
+        long[] bandSeeds = new long[bands];
+        for (int band = 0; band < bands; band++) bandSeeds[band] = random.nextLong();
+
+        MineField mineField = new MineField(height, width);
+        if (parallel) {
+            ForkJoinPool.commonPool().invoke(new BandTask(0, bands, band -> mineField.placeMines(
+                    firstRow(band), lastRow(band, height), minesPerBand[band], new SplittableRandom(bandSeeds[band]),
+                    firstClickPosition)));
+        } else {
+            for (int band = 0; band < bands; band++) {
+                mineField.placeMines(firstRow(band), lastRow(band, height), minesPerBand[band],
+                        new SplittableRandom(bandSeeds[band]), firstClickPosition);
+            }
+        }
+        return mineField;
+    }
+
+    void writeCounts(MineField mineField, CellGrid grid, boolean parallel) {
+        int height = grid.getHeight();
+        int bands = (height + BAND_ROWS - 1) / BAND_ROWS;
+        if (parallel) {
+            // All mines are placed at this point, so bands read the edge rows of their neighbours as a halo.
+            ForkJoinPool.commonPool().invoke(new BandTask(0, bands, band ->
+                    mineField.writeCounts(grid, firstRow(band), lastRow(band, height))));
+        } else {
+            mineField.writeCounts(grid, 0, height);
+        }
+    }
+
+    /*
+     * Distributes the mines over the bands as if every mine picked a uniformly random free cell of the board.
+     * Bands are visited in order and each takes a hypergeometric share of the mines left among the free cells
+     * left, which gives the same distribution as drawing mine by mine with a single draw per band.
+     */
+    private int[] drawMinesPerBand(int height, int width, int nrOfMines, int firstClickPosition, int bands,
+                                   SplittableRandom random) {
+        int firstClickBand = firstClickPosition < 0 ? -1 : firstClickPosition / width / BAND_ROWS;
+        long freeLeft = (long) height * width - (firstClickPosition < 0 ? 0 : 1);
+        int minesLeft = nrOfMines;
+        int[] minesPerBand = new int[bands];
+        for (int band = 0; band < bands && minesLeft > 0; band++) {
+            long free = (long) (lastRow(band, height) - firstRow(band)) * width;
+            if (band == firstClickBand) free--;
+            minesPerBand[band] = hypergeometric(freeLeft, minesLeft, free, random);
+            minesLeft -= minesPerBand[band];
+            freeLeft -= free;
+        }
+        return minesPerBand;
+    }
+
+    /*
+     * Number of mines among `draws` cells taken from `population` cells of which `mines` hold one. Inverts the
+     * distribution starting at its mode and walking outwards on both sides, so a draw takes a number of steps
+     * in the order of the standard deviation instead of one per mine. Certain outcomes use no randomness.
+     */
+    static int hypergeometric(long population, long mines, long draws, SplittableRandom random) {
+        long low = Math.max(0, draws - (population - mines));
+        long high = Math.min(draws, mines);
+        if (low == high) return (int) low;
+        long mode = Math.min(high, Math.max(low, (draws + 1) * (mines + 1) / (population + 2)));
+        double modeProbability = Math.exp(logChoose(mines, mode) + logChoose(population - mines, draws - mode)
+                - logChoose(population, draws));
+        double u = random.nextDouble() - modeProbability;
+        if (u <= 0) return (int) mode;
+        long up = mode;
+        long down = mode;
+        double upProbability = modeProbability;
+        double downProbability = modeProbability;
+        while (up < high || down > low) {
+            if (up < high) {
+                upProbability *= (double) (mines - up) * (draws - up)
+                        / ((double) (up + 1) * (population - mines - draws + up + 1));
+                up++;
+                u -= upProbability;
+                if (u <= 0) return (int) up;
+            }
+            if (down > low) {
+                downProbability *= (double) down * (population - mines - draws + down)
+                        / ((double) (mines - down + 1) * (draws - down + 1));
+                down--;
+                u -= downProbability;
+                if (u <= 0) return (int) down;
+            }
+        }
+        // only reached through rounding in the last digits
+        return (int) mode;
+    }
+
+    private static double logChoose(long n, long k) {
+        return logFactorial(n) - logFactorial(k) - logFactorial(n - k);
+    }
+
+    // Stirling's series beyond the table is accurate to far below the precision the probabilities need.
+    private static double logFactorial(long n) {
+        if (n < LOG_FACTORIALS.length) return LOG_FACTORIALS[(int) n];
+        double x = n;
+        return (x + 0.5) * Math.log(x) - x + 0.5 * Math.log(2 * Math.PI) + 1 / (12 * x) - 1 / (360 * x * x * x);
+    }
+
+    private static int firstRow(int band) {
+        return band * BAND_ROWS;
+    }
+
+    private static int lastRow(int band, int height) {
+        return Math.min(height, (band + 1) * BAND_ROWS);
+    }
+
+    private interface BandWork {
+        void run(int band);
+    }
+
+    private static class BandTask extends RecursiveAction {
+        private final int fromBand;
+        private final int toBand;
+        private final BandWork work;
+
+        BandTask(int fromBand, int toBand, BandWork work) {
+            this.fromBand = fromBand;
+            this.toBand = toBand;
+            this.work = work;
+        }
+
+        @Override
+        protected void compute() {
+            if (toBand - fromBand == 1) {
+                work.run(fromBand);
+                return;
+            }
+            int middle = (fromBand + toBand) >>> 1;
+            invokeAll(new BandTask(fromBand, middle, work), new BandTask(middle, toBand, work));
+        }
+    }
+}
@@ -4,7 +4,7 @@ public class BoardRequest {
     private Coordinate coordinate;
     private BoardAction actionType;
 
-    BoardRequest(Coordinate coordinate, BoardAction actionType) {
+    public BoardRequest(Coordinate coordinate, BoardAction actionType) {
         this.coordinate = coordinate;
         this.actionType = actionType;
     }
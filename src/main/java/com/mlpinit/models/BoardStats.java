@@ -0,0 +1,56 @@
+package com.mlpinit.models;
+
+/*
+ * Read only snapshot of the live counters kept by a Board.
+ */
+public class BoardStats {
+    private final int cells;
+    private final int nrOfMines;
+    private final int remainingMines;
+    private final int closedSafeCells;
+    private final int correctMarks;
+    private final int wrongMarks;
+
+    BoardStats(int cells, int nrOfMines, int remainingMines, int closedSafeCells, int correctMarks, int wrongMarks) {
+        this.cells = cells;
+        this.nrOfMines = nrOfMines;
+        this.remainingMines = remainingMines;
+        this.closedSafeCells = closedSafeCells;
+        this.correctMarks = correctMarks;
+        this.wrongMarks = wrongMarks;
+    }
+
+    public int getCells() {
+        return cells;
+    }
+
+    public int getNrOfMines() {
+        return nrOfMines;
+    }
+
+    public int getRemainingMines() {
+        return remainingMines;
+    }
+
+    // Cells without a mine that have not been opened yet, marked or not.
+    public int getClosedSafeCells() {
+        return closedSafeCells;
+    }
+
+    public int getOpenedSafeCells() {
+        return cells - nrOfMines - closedSafeCells;
+    }
+
+    public int getCorrectMarks() {
+        return correctMarks;
+    }
+
+    public int getWrongMarks() {
+        return wrongMarks;
+    }
+
+    public String toString() {
+        return "closed safe cells: " + closedSafeCells + ", correct marks: " + correctMarks +
+                ", wrong marks: " + wrongMarks + ", remaining mines: " + remainingMines;
+    }
+}
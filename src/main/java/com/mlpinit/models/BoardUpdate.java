@@ -0,0 +1,212 @@
+package com.mlpinit.models;
+
+import java.util.Arrays;
+
+/*
+ * Immutable batch of everything that changed on a board while executing a single BoardRequest.
+ * Cells are given by position (row * width + column) and exposed through indexed accessors so that applying
+ * an update does not allocate.
+ */
+public class BoardUpdate {
+    private final int width;
+    private final int[] openedPositions;
+    private final byte[] openedValues;
+    private final int[] markedPositions;
+    private final int[] unmarkedPositions;
+    private final int[] minePositions;
+    private final int[] incorrectMarkPositions;
+    private final BoardStats stats;
+    private final boolean gameWon;
+    private final boolean gameLost;
+    private final boolean reset;
+
+    private BoardUpdate(Builder builder, BoardStats stats) {
+        this.width = builder.width;
+        this.openedPositions = Arrays.copyOf(builder.openedPositions, builder.opened);
+        this.openedValues = Arrays.copyOf(builder.openedValues, builder.opened);
+        this.markedPositions = builder.marked.toArray();
+        this.unmarkedPositions = builder.unmarked.toArray();
+        this.minePositions = builder.mines.toArray();
+        this.incorrectMarkPositions = builder.incorrectMarks.toArray();
+        this.stats = stats;
+        this.gameWon = builder.gameWon;
+        this.gameLost = builder.gameLost;
+        this.reset = builder.reset;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getOpenedCount() {
+        return openedPositions.length;
+    }
+
+    public int getOpenedPosition(int index) {
+        return openedPositions[index];
+    }
+
+    public int getOpenedValue(int index) {
+        return openedValues[index];
+    }
+
+    public int getMarkedCount() {
+        return markedPositions.length;
+    }
+
+    public int getMarkedPosition(int index) {
+        return markedPositions[index];
+    }
+
+    public int getUnmarkedCount() {
+        return unmarkedPositions.length;
+    }
+
+    public int getUnmarkedPosition(int index) {
+        return unmarkedPositions[index];
+    }
+
+    // Mines opened by this request, the one that ended the game first.
+    public int getMineCount() {
+        return minePositions.length;
+    }
+
+    public int getMinePosition(int index) {
+        return minePositions[index];
+    }
+
+    public int getIncorrectMarkCount() {
+        return incorrectMarkPositions.length;
+    }
+
+    public int getIncorrectMarkPosition(int index) {
+        return incorrectMarkPositions[index];
+    }
+
+    public BoardStats getStats() {
+        return stats;
+    }
+
+    public int getRemainingMines() {
+        return stats.getRemainingMines();
+    }
+
+    public boolean isGameWon() {
+        return gameWon;
+    }
+
+    public boolean isGameLost() {
+        return gameLost;
+    }
+
+    // The board was reset for a new game, every cell is closed again.
+    public boolean isReset() {
+        return reset;
+    }
+
+    // Number of individual cell changes carried by this update.
+    public int size() {
+        return openedPositions.length + markedPositions.length + unmarkedPositions.length + minePositions.length
+                + incorrectMarkPositions.length;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0 && !gameWon && !gameLost && !reset;
+    }
+
+    public String toString() {
+        return "opened: " + openedPositions.length + ", marked: " + markedPositions.length + ", unmarked: " +
+                unmarkedPositions.length + ", mines: " + minePositions.length + ", won: " + gameWon +
+                ", lost: " + gameLost + ", reset: " + reset;
+    }
+
+    /*
+     * Collects the changes of a request. A board keeps a single builder and clears it before every request,
+     * so the buffers only grow to the largest request seen.
+     */
+    static class Builder {
+        private int width;
+        private int[] openedPositions = new int[64];
+        private byte[] openedValues = new byte[64];
+        private int opened = 0;
+        private final IntBuffer marked = new IntBuffer();
+        private final IntBuffer unmarked = new IntBuffer();
+        private final IntBuffer mines = new IntBuffer();
+        private final IntBuffer incorrectMarks = new IntBuffer();
+        private boolean gameWon;
+        private boolean gameLost;
+        private boolean reset;
+
+        void clear(int width) {
+            this.width = width;
+            opened = 0;
+            marked.clear();
+            unmarked.clear();
+            mines.clear();
+            incorrectMarks.clear();
+            gameWon = false;
+            gameLost = false;
+            reset = false;
+        }
+
+        void opened(int position, int value) {
+            if (opened == openedPositions.length) {
+                openedPositions = Arrays.copyOf(openedPositions, opened * 2);
+                openedValues = Arrays.copyOf(openedValues, opened * 2);
+            }
+            openedPositions[opened] = position;
+            openedValues[opened] = (byte) value;
+            opened++;
+        }
+
+        void marked(int position) {
+            marked.add(position);
+        }
+
+        void unmarked(int position) {
+            unmarked.add(position);
+        }
+
+        void mine(int position) {
+            mines.add(position);
+        }
+
+        void incorrectMark(int position) {
+            incorrectMarks.add(position);
+        }
+
+        void gameWon() {
+            gameWon = true;
+        }
+
+        void gameLost() {
+            gameLost = true;
+        }
+
+        void reset() {
+            reset = true;
+        }
+
+        BoardUpdate build(BoardStats stats) {
+            return new BoardUpdate(this, stats);
+        }
+    }
+
+    private static class IntBuffer {
+        private int[] values = new int[16];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
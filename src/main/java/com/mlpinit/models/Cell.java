@@ -4,80 +4,109 @@ public class Cell {
     public static final int MINE = -1;
     public static final int EMPTY = 0;
 
-    private State state;
-    private int value;
-    private Coordinate coordinate;
+    private CellGrid grid;
+    private int position;
+    private int x;
+    private int y;
 
     public Cell(Coordinate coordinate, int value) {
-        this.coordinate = coordinate;
-        this.value = value;
-        this.state = State.CLOSED;
+        this(new CellGrid(1, 1), 0, coordinate.getX(), coordinate.getY());
+        grid.setValue(0, value);
+    }
+
+    Cell(CellGrid grid, int position, int x, int y) {
+        this.grid = grid;
+        this.position = position;
+        this.x = x;
+        this.y = y;
+    }
+
+    // Copies the state of this cell into the given grid and makes the cell a view of that grid from now on.
+    void attach(CellGrid target, int targetPosition) {
+        target.setValue(targetPosition, getValue());
+        if (isOpened()) target.open(targetPosition);
+        if (isMarked()) target.setMark(targetPosition);
+        this.grid = target;
+        this.position = targetPosition;
     }
 
     public void open() {
-        this.state = State.OPENED;
+        grid.open(position);
     }
 
     public int getValue() {
-        return value;
+        return grid.getValue(position);
     }
 
     public String getDisplayValue() {
+        int value = getValue();
         if (value == MINE) return "*";
         if (value == EMPTY) return "";
         return "" + value;
     }
 
     public int getX() {
-        return coordinate.getX();
+        return x;
     }
 
     public int getY() {
-        return coordinate.getY();
+        return y;
     }
 
     public State getState() {
-        return state;
+        return grid.getState(position);
     }
 
     public void setMark() {
-        if (state == State.CLOSED) state = State.MARKED;
+        grid.setMark(position);
     }
 
     public void unsetMark() {
-        if (state == State.MARKED) state = State.CLOSED;
+        grid.unsetMark(position);
     }
 
     public Coordinate getCoordinate() {
-        return coordinate;
+        return new Coordinate(x, y);
     }
 
     public boolean isMarked() {
-        return state == State.MARKED;
+        return grid.isMarked(position);
     }
 
     public boolean isOpened() {
-        return state == State.OPENED;
+        return grid.isOpened(position);
     }
 
     public boolean isClosed() {
-        return state == State.CLOSED;
+        return grid.isClosed(position);
     }
 
     public boolean isEmpty() {
-        return value == EMPTY;
+        return grid.isEmpty(position);
     }
 
     public boolean isMine() {
-        return value == MINE;
+        return grid.isMine(position);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (!(other instanceof Cell)) return false;
+        Cell cell = (Cell) other;
+        return grid == cell.grid && position == cell.position;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(grid) + position;
     }
 
     public String toString() {
-        return state + " with value: " + value + " ";
+        return getState() + " with value: " + getValue() + " ";
     }
 
     public enum State {
         CLOSED, OPENED, MARKED
     }
 }
-
@@ -0,0 +1,112 @@
+package com.mlpinit.models;
+
+import java.util.Arrays;
+
+/*
+ * Packed storage for the cells of a board. Every cell takes a single byte: the low nibble holds the value
+ * (0 - 8, or MINE_VALUE for a mine) and two of the high bits hold the opened and marked flags.
+ * Cells are addressed by their position, row * width + column.
+ */
+public class CellGrid {
+    static final int VALUE_MASK = 0x0F;
+    static final int MINE_VALUE = 0x0F;
+    static final int OPENED = 0x10;
+    static final int MARKED = 0x20;
+
+    private final int height;
+    private final int width;
+    private final byte[] cells;
+
+    public CellGrid(int height, int width) {
+        this.height = height;
+        this.width = width;
+        this.cells = new byte[height * width];
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int size() {
+        return cells.length;
+    }
+
+    public boolean contains(int x, int y) {
+        return x >= 0 && y >= 0 && x < height && y < width;
+    }
+
+    public int position(int x, int y) {
+        return x * width + y;
+    }
+
+    public int getValue(int position) {
+        int value = cells[position] & VALUE_MASK;
+        return value == MINE_VALUE ? Cell.MINE : value;
+    }
+
+    public void setValue(int position, int value) {
+        int packedValue = value == Cell.MINE ? MINE_VALUE : value;
+        cells[position] = (byte) ((cells[position] & ~VALUE_MASK) | packedValue);
+    }
+
+    public boolean isMine(int position) {
+        return (cells[position] & VALUE_MASK) == MINE_VALUE;
+    }
+
+    public boolean isEmpty(int position) {
+        return (cells[position] & VALUE_MASK) == Cell.EMPTY;
+    }
+
+    public boolean isOpened(int position) {
+        return (cells[position] & OPENED) != 0;
+    }
+
+    public boolean isMarked(int position) {
+        return (cells[position] & MARKED) != 0;
+    }
+
+    public boolean isClosed(int position) {
+        return (cells[position] & (OPENED | MARKED)) == 0;
+    }
+
+    public Cell.State getState(int position) {
+        if (isOpened(position)) return Cell.State.OPENED;
+        if (isMarked(position)) return Cell.State.MARKED;
+        return Cell.State.CLOSED;
+    }
+
+    public void open(int position) {
+        cells[position] = (byte) ((cells[position] & ~MARKED) | OPENED);
+    }
+
+    public void setMark(int position) {
+        if (isClosed(position)) cells[position] |= MARKED;
+    }
+
+    public void unsetMark(int position) {
+        cells[position] &= ~MARKED;
+    }
+
+    // Clears every value and flag, leaving the grid as freshly allocated.
+    public void clear() {
+        Arrays.fill(cells, (byte) 0);
+    }
+
+    // Copy of the packed cells, in the format Board.restore expects through GameSnapshot.
+    public byte[] copyCells() {
+        return cells.clone();
+    }
+
+    void loadCells(byte[] source) {
+        System.arraycopy(source, 0, cells, 0, cells.length);
+    }
+
+    // Creates a view of the cell at the given position. Views are cheap and always reflect the grid.
+    public Cell cellAt(int position) {
+        return new Cell(this, position, position / width, position % width);
+    }
+}
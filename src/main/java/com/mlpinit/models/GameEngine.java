@@ -0,0 +1,173 @@
+package com.mlpinit.models;
+
+import com.mlpinit.utils.Log;
+import rx.Subscription;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Runs a board on its own thread. Requests arrive through a bounded queue and the engine thread is the only one
+ * that ever executes them, so the board keeps a single writer. Every batch the board emits goes into an
+ * UpdateRingBuffer for the event dispatch thread to drain, which keeps long cascades and board generation off
+ * the EDT.
+ */
+public class GameEngine {
+    private static final String TAG = "[GameEngine]";
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+    public static final int DEFAULT_RING_CAPACITY = 1024;
+    // Queued in place of a request to reset the board on the engine thread.
+    private static final BoardRequest RESET = new BoardRequest(null, null);
+    // Queued to wake the engine thread up for the pending tasks.
+    private static final BoardRequest TASKS = new BoardRequest(null, null);
+
+    private final Board board;
+    private final BlockingQueue<BoardRequest> requests;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final UpdateRingBuffer updates;
+    private final Subscription subscription;
+    private final AtomicLong rejectedRequests = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    public GameEngine(Board board) {
+        this(board, DEFAULT_QUEUE_CAPACITY, DEFAULT_RING_CAPACITY);
+    }
+
+    public GameEngine(Board board, int queueCapacity, int ringCapacity) {
+        this.board = board;
+        this.requests = new ArrayBlockingQueue<>(queueCapacity);
+        this.updates = new UpdateRingBuffer(ringCapacity);
+        this.subscription = board.boardUpdateObservable.subscribe(this::publish);
+        this.thread = new Thread(this::run, "minesweeper-engine");
+        thread.setDaemon(true);
+    }
+
+    public GameEngine start() {
+        thread.start();
+        return this;
+    }
+
+    /*
+     * Queues a request for the engine thread. Never blocks; a request that does not fit is dropped and counted.
+     * Meant for headless callers such as bots and load generators, players use the variant with a timeout.
+     */
+    public boolean submit(BoardRequest request) {
+        if (!running) return false;
+        if (requests.offer(request)) return true;
+        return reject(request);
+    }
+
+    /*
+     * Queues a request, waiting up to the timeout for room when the queue is full. A click of a player should
+     * not get lost because a long cascade is still running, so input from the event dispatch thread waits
+     * briefly before it is dropped and counted.
+     */
+    public boolean submit(BoardRequest request, long timeout, TimeUnit unit) {
+        if (!running) return false;
+        try {
+            if (requests.offer(request, timeout, unit)) return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return reject(request);
+    }
+
+    /*
+     * Resets the board for a new game on the engine thread. Requests still queued for the old game are dropped,
+     * the reset update reaches the ring after every update of the old game.
+     */
+    public void reset() {
+        if (!running) return;
+        requests.clear();
+        requests.offer(RESET);
+    }
+
+    /*
+     * Runs a task on the engine thread between two requests, for work that needs the board to hold still such as
+     * taking or loading a snapshot. Tasks never wait behind a full queue: when the wake up does not fit, they run
+     * after the request the engine is busy with.
+     */
+    public <T> CompletableFuture<T> call(Callable<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (!running) {
+            result.completeExceptionally(new IllegalStateException("The engine is stopped"));
+            return result;
+        }
+        tasks.add(() -> {
+            try {
+                result.complete(task.call());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        requests.offer(TASKS);
+        return result;
+    }
+
+    public UpdateRingBuffer getUpdates() {
+        return updates;
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public long getRejectedRequests() {
+        return rejectedRequests.get();
+    }
+
+    public int getPendingRequests() {
+        return requests.size();
+    }
+
+    public void stop() {
+        running = false;
+        thread.interrupt();
+        subscription.unsubscribe();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                BoardRequest request = requests.take();
+                if (request == RESET) {
+                    board.reset();
+                } else if (request != TASKS) {
+                    board.execute(request);
+                }
+                runTasks();
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                Log.error(TAG, "Request failed: " + e);
+            }
+        }
+    }
+
+    private boolean reject(BoardRequest request) {
+        rejectedRequests.incrementAndGet();
+        Log.warn(TAG, "Dropped request at " + request.getCoordinate() + ", the engine is busy");
+        return false;
+    }
+
+    // A reset may have cleared the wake up of a task, so the queue is checked after every request.
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) task.run();
+    }
+
+    private void publish(BoardUpdate update) {
+        try {
+            updates.put(update);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
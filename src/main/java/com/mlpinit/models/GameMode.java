@@ -0,0 +1,40 @@
+package com.mlpinit.models;
+
+// The board settings offered by the options screen. Any other settings are CUSTOM.
+public enum GameMode {
+    BEGINNER(8, 8, 10), INTERMEDIATE(16, 16, 40), EXPERT(16, 30, 99), CUSTOM(0, 0, 0);
+
+    private final int height;
+    private final int width;
+    private final int nrOfMines;
+
+    GameMode(int height, int width, int nrOfMines) {
+        this.height = height;
+        this.width = width;
+        this.nrOfMines = nrOfMines;
+    }
+
+    public static GameMode of(int height, int width, int nrOfMines) {
+        for (GameMode mode : values()) {
+            if (mode.height == height && mode.width == width && mode.nrOfMines == nrOfMines) return mode;
+        }
+        return CUSTOM;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getNrOfMines() {
+        return nrOfMines;
+    }
+
+    // Height, width and number of mines, as the options screen publishes them.
+    public Integer[] toSettings() {
+        return new Integer[]{height, width, nrOfMines};
+    }
+}
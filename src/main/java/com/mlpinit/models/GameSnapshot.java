@@ -0,0 +1,61 @@
+package com.mlpinit.models;
+
+/*
+ * Consistent copy of the full state of a board, taken on the thread that plays the game so it can be written
+ * elsewhere without further coordination.
+ */
+public class GameSnapshot {
+    private final int height;
+    private final int width;
+    private final int nrOfMines;
+    private final long seed;
+    private final Board.State state;
+    private final int remainingMines;
+    private final long elapsedMillis;
+    private final byte[] cells;
+
+    public GameSnapshot(int height, int width, int nrOfMines, long seed, Board.State state, int remainingMines,
+                        long elapsedMillis, byte[] cells) {
+        this.height = height;
+        this.width = width;
+        this.nrOfMines = nrOfMines;
+        this.seed = seed;
+        this.state = state;
+        this.remainingMines = remainingMines;
+        this.elapsedMillis = elapsedMillis;
+        this.cells = cells;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getNrOfMines() {
+        return nrOfMines;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Board.State getState() {
+        return state;
+    }
+
+    public int getRemainingMines() {
+        return remainingMines;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    // Packed cells as stored by CellGrid, one byte per cell. Empty for games that have not started yet.
+    public byte[] getCells() {
+        return cells;
+    }
+}
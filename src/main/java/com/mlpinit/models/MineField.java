@@ -0,0 +1,189 @@
+package com.mlpinit.models;
+
+import java.util.SplittableRandom;
+
+/*
+ * Bitmap of mine positions. Every row is stored in its own run of longs (bit j of word k holds column
+ * k * 64 + j), so rows can be processed a word at a time.
+ */
+public class MineField {
+    // Above this density rejection sampling keeps hitting taken positions, so a partial shuffle is used instead.
+    private static final double SPARSE_DENSITY_LIMIT = 0.5;
+
+    private final int height;
+    private final int width;
+    private final int wordsPerRow;
+    private final long[] words;
+
+    public MineField(int height, int width) {
+        this.height = height;
+        this.width = width;
+        this.wordsPerRow = (width + 63) >>> 6;
+        this.words = new long[height * wordsPerRow];
+    }
+
+    /*
+     * Places nrOfMines mines uniformly at random, never on excludedPosition (row * width + column, or -1 for
+     * none). The same arguments always produce the same mine field.
+     */
+    public static MineField generate(int height, int width, int nrOfMines, long seed, int excludedPosition) {
+        MineField mineField = new MineField(height, width);
+        mineField.placeMines(0, height, nrOfMines, new SplittableRandom(seed), excludedPosition);
+        return mineField;
+    }
+
+    /*
+     * Places nrOfMines mines uniformly at random in rows [fromRow, toRow), skipping excludedPosition. Rows own
+     * their words, so disjoint row ranges can be filled from different threads.
+     */
+    void placeMines(int fromRow, int toRow, int nrOfMines, SplittableRandom random, int excludedPosition) {
+        int firstPosition = fromRow * width;
+        int cells = (toRow - fromRow) * width;
+        boolean excluded = excludedPosition >= firstPosition && excludedPosition < firstPosition + cells;
+        int available = excluded ? cells - 1 : cells;
+        if (nrOfMines < 0 || nrOfMines > available) {
+            throw new IllegalArgumentException("Can not place " + nrOfMines + " mines on " + available + " cells.");
+        }
+        if (nrOfMines <= cells * SPARSE_DENSITY_LIMIT) {
+            placeSparse(firstPosition, cells, nrOfMines, random, excludedPosition);
+        } else {
+            placeDense(firstPosition, cells, nrOfMines, random, excludedPosition);
+        }
+    }
+
+    // Draws positions until enough free ones were hit. Expected draws stay below 1.4 per mine at this density.
+    private void placeSparse(int firstPosition, int cells, int nrOfMines, SplittableRandom random,
+                             int excludedPosition) {
+        int placed = 0;
+        while (placed < nrOfMines) {
+            int position = firstPosition + random.nextInt(cells);
+            if (position == excludedPosition || isMine(position)) continue;
+            setMine(position);
+            placed++;
+        }
+    }
+
+    // Partial Fisher-Yates shuffle over the candidate positions, stopping after nrOfMines swaps.
+    private void placeDense(int firstPosition, int cells, int nrOfMines, SplittableRandom random,
+                            int excludedPosition) {
+        int[] candidates = new int[cells];
+        int nrOfCandidates = 0;
+        for (int position = firstPosition; position < firstPosition + cells; position++) {
+            if (position != excludedPosition) candidates[nrOfCandidates++] = position;
+        }
+        for (int i = 0; i < nrOfMines; i++) {
+            int j = i + random.nextInt(nrOfCandidates - i);
+            int candidate = candidates[j];
+            candidates[j] = candidates[i];
+            candidates[i] = candidate;
+            setMine(candidate);
+        }
+    }
+
+    /*
+     * Writes the value of every cell in rows [fromRow, toRow) into the grid: Cell.MINE for mines and the number
+     * of neighbouring mines otherwise. The eight neighbour bitmaps of a 64 cell word are summed with bit sliced
+     * adders, so all 64 counts of a word are computed with a handful of logical operations and no allocation.
+     */
+    public void writeCounts(CellGrid grid, int fromRow, int toRow) {
+        for (int x = fromRow; x < toRow; x++) {
+            for (int k = 0; k < wordsPerRow; k++) {
+                long upLeft = shiftedLeft(x - 1, k);
+                long up = rowWord(x - 1, k);
+                long upRight = shiftedRight(x - 1, k);
+                long left = shiftedLeft(x, k);
+                long right = shiftedRight(x, k);
+                long downLeft = shiftedLeft(x + 1, k);
+                long down = rowWord(x + 1, k);
+                long downRight = shiftedRight(x + 1, k);
+
+                // weight one bits of the three neighbour groups and their carries (weight two)
+                long upSum = upLeft ^ up ^ upRight;
+                long upCarry = (upLeft & up) | (upRight & (upLeft ^ up));
+                long downSum = downLeft ^ down ^ downRight;
+                long downCarry = (downLeft & down) | (downRight & (downLeft ^ down));
+                long middleSum = left ^ right;
+                long middleCarry = left & right;
+
+                long bit0 = upSum ^ downSum ^ middleSum;
+                long sumCarry = (upSum & downSum) | (middleSum & (upSum ^ downSum));
+
+                // add the four weight two carries
+                long twos = upCarry ^ downCarry ^ middleCarry;
+                long fours = (upCarry & downCarry) | (middleCarry & (upCarry ^ downCarry));
+                long bit1 = twos ^ sumCarry;
+                long twosCarry = twos & sumCarry;
+                long bit2 = fours ^ twosCarry;
+                long bit3 = fours & twosCarry;
+
+                long mines = rowWord(x, k);
+                int firstColumn = k << 6;
+                int columns = Math.min(64, width - firstColumn);
+                int position = x * width + firstColumn;
+                for (int j = 0; j < columns; j++) {
+                    int value;
+                    if (((mines >>> j) & 1) != 0) {
+                        value = Cell.MINE;
+                    } else {
+                        value = (int) (((bit0 >>> j) & 1) | (((bit1 >>> j) & 1) << 1)
+                                | (((bit2 >>> j) & 1) << 2) | (((bit3 >>> j) & 1) << 3));
+                    }
+                    grid.setValue(position + j, value);
+                }
+            }
+        }
+    }
+
+    // Word k of row x, zero outside of the field.
+    private long rowWord(int x, int k) {
+        if (x < 0 || x >= height || k < 0 || k >= wordsPerRow) return 0;
+        return words[x * wordsPerRow + k];
+    }
+
+    // Bit j is set when the cell to the left of column j (in word k of row x) holds a mine.
+    private long shiftedLeft(int x, int k) {
+        return (rowWord(x, k) << 1) | (rowWord(x, k - 1) >>> 63);
+    }
+
+    // Bit j is set when the cell to the right of column j (in word k of row x) holds a mine.
+    private long shiftedRight(int x, int k) {
+        return (rowWord(x, k) >>> 1) | (rowWord(x, k + 1) << 63);
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public boolean isMine(int x, int y) {
+        return (words[x * wordsPerRow + (y >>> 6)] & (1L << y)) != 0;
+    }
+
+    public boolean isMine(int position) {
+        return isMine(position / width, position % width);
+    }
+
+    public void setMine(int x, int y) {
+        words[x * wordsPerRow + (y >>> 6)] |= 1L << y;
+    }
+
+    public void setMine(int position) {
+        setMine(position / width, position % width);
+    }
+
+    public void clearMine(int position) {
+        words[(position / width) * wordsPerRow + ((position % width) >>> 6)] &= ~(1L << (position % width));
+    }
+
+    int getWordsPerRow() {
+        return wordsPerRow;
+    }
+
+    // The index-th word of row x.
+    long word(int x, int index) {
+        return words[x * wordsPerRow + index];
+    }
+}
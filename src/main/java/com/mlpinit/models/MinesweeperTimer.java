@@ -1,42 +1,127 @@
 package com.mlpinit.models;
 
 import rx.Observable;
+import rx.Scheduler;
 import rx.schedulers.SwingScheduler;
 import rx.subjects.PublishSubject;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/*
+ * Game clock measured with System.nanoTime. All timers share one daemon scheduler thread, and a running timer
+ * only wakes up when the displayed second changes: every tick schedules the next one at the following second
+ * boundary. Elapsed time is kept in nanoseconds so the final time of a game is exact to the millisecond.
+ */
 public class MinesweeperTimer {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "minesweeper-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-    private PublishSubject<Integer> elapsedTimeSubject;
+    private final LongSupplier clock;
+    private final PublishSubject<Integer> elapsedTimeSubject;
+    // Elapsed seconds, delivered on the event dispatch thread.
     public Observable<Integer> elapsedTimeObservable;
 
-    private Long startTime;
-    private boolean timerIsStarted;
+    // Time accumulated before the current run, and when the current run started.
+    private volatile long accumulatedNanos;
+    private volatile long startNanos;
+    private volatile boolean running;
+    private int lastSecond = -1;
+    private ScheduledFuture<?> nextTick;
+    // Bumped whenever a tick is scheduled or the clock pauses. Only the tick scheduled last may run, one that
+    // was already waiting for the lock when it got cancelled is stale and must not start a second chain.
+    long generation;
 
     public MinesweeperTimer() {
-        elapsedTimeSubject = PublishSubject.create();
-        elapsedTimeObservable = elapsedTimeSubject.share()
-                .subscribeOn(SwingScheduler.getInstance())
-                .unsubscribeOn(SwingScheduler.getInstance());
-        this.startTime = null;
-    }
-
-    public void stopTimer() {
-        this.timerIsStarted = false;
-    }
-
-    public void startTimer() {
-        startTime = System.currentTimeMillis();
-        timerIsStarted = true;
-        new Thread(() -> {
-            while (timerIsStarted) {
-                try {
-                    Thread.sleep(500);
-                    long elapsedTime = System.currentTimeMillis() - startTime;
-                    elapsedTimeSubject.onNext((int) (elapsedTime / 1000));
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
-        }).start();
+        this(System::nanoTime, SwingScheduler.getInstance());
+    }
+
+    MinesweeperTimer(LongSupplier clock, Scheduler observeScheduler) {
+        this.clock = clock;
+        this.elapsedTimeSubject = PublishSubject.create();
+        this.elapsedTimeObservable = elapsedTimeSubject.onBackpressureLatest()
+                .observeOn(observeScheduler)
+                .share();
+    }
+
+    public long getElapsedNanos() {
+        long elapsed = accumulatedNanos;
+        if (running) elapsed += clock.getAsLong() - startNanos;
+        return elapsed;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(getElapsedNanos());
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Starts counting from zero.
+    public synchronized void startTimer() {
+        pause();
+        accumulatedNanos = 0;
+        lastSecond = -1;
+        resume();
+    }
+
+    // Stops the clock, getElapsedMillis keeps returning the final time.
+    public synchronized void stopTimer() {
+        pause();
+    }
+
+    // Pauses the clock at the given time, for a new game or a loaded one. resume continues counting from there.
+    public synchronized void setElapsedMillis(long elapsedMillis) {
+        pause();
+        accumulatedNanos = TimeUnit.MILLISECONDS.toNanos(elapsedMillis);
+        lastSecond = (int) (accumulatedNanos / NANOS_PER_SECOND);
+        elapsedTimeSubject.onNext(lastSecond);
+    }
+
+    public synchronized void pause() {
+        if (!running) return;
+        accumulatedNanos += clock.getAsLong() - startNanos;
+        running = false;
+        generation++;
+        if (nextTick != null) {
+            nextTick.cancel(false);
+            nextTick = null;
+        }
+    }
+
+    public synchronized void resume() {
+        if (running) return;
+        startNanos = clock.getAsLong();
+        running = true;
+        tick();
+    }
+
+    // Runs a scheduled tick unless pause, resume or a newer tick made it stale.
+    synchronized void tick(long tickGeneration) {
+        if (tickGeneration != generation) return;
+        tick();
+    }
+
+    // Publishes the elapsed second when it changed and schedules the next tick for the following second boundary.
+    synchronized void tick() {
+        if (!running) return;
+        long elapsed = getElapsedNanos();
+        int second = (int) (elapsed / NANOS_PER_SECOND);
+        if (second != lastSecond) {
+            lastSecond = second;
+            elapsedTimeSubject.onNext(second);
+        }
+        long untilNextSecond = NANOS_PER_SECOND - elapsed % NANOS_PER_SECOND;
+        if (nextTick != null) nextTick.cancel(false);
+        long nextGeneration = ++generation;
+        nextTick = scheduler.schedule(() -> tick(nextGeneration), untilNextSecond, TimeUnit.NANOSECONDS);
     }
 }
@@ -0,0 +1,71 @@
+package com.mlpinit.models;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/*
+ * Single producer, single consumer ring of board updates. The slots are allocated once; the producer only
+ * writes the tail and the consumer only writes the head, so neither side takes a lock. The engine thread
+ * publishes into it and the event dispatch thread drains it once per frame.
+ */
+public class UpdateRingBuffer {
+    private static final long PARK_NANOS = 100_000;
+
+    private final BoardUpdate[] slots;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    // The capacity is rounded up to a power of two.
+    public UpdateRingBuffer(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) size <<= 1;
+        this.slots = new BoardUpdate[size];
+        this.mask = size - 1;
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // Producer side. Returns false when the ring is full.
+    public boolean offer(BoardUpdate update) {
+        long currentTail = tail.get();
+        if (currentTail - head.get() == slots.length) return false;
+        slots[(int) currentTail & mask] = update;
+        tail.lazySet(currentTail + 1);
+        return true;
+    }
+
+    // Producer side. Waits for the consumer while the ring is full, updates are never dropped.
+    public void put(BoardUpdate update) throws InterruptedException {
+        while (!offer(update)) {
+            if (Thread.interrupted()) throw new InterruptedException();
+            LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    // Consumer side. Hands every published update to the consumer in order and returns how many there were.
+    public int drain(Consumer<BoardUpdate> consumer) {
+        long currentHead = head.get();
+        long currentTail = tail.get();
+        for (long index = currentHead; index < currentTail; index++) {
+            int slot = (int) index & mask;
+            BoardUpdate update = slots[slot];
+            slots[slot] = null;
+            consumer.accept(update);
+        }
+        head.lazySet(currentTail);
+        return (int) (currentTail - currentHead);
+    }
+}
@@ -0,0 +1,258 @@
+package com.mlpinit.persistence;
+
+import com.mlpinit.models.BoardUpdate;
+import com.mlpinit.models.Cell;
+import com.mlpinit.models.CellGrid;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/*
+ * Binary form of the BoardUpdate of a single request, for mirroring a board remotely or recording it.
+ *
+ * A delta starts with a flags byte (won, lost, reset), a byte with one bit per non-empty section and the
+ * remaining mines as a zigzag varint. Then follow the sections that have cells, in order: opened empty cells,
+ * opened numbered cells, marked, unmarked, mines and incorrect marks. A section is a varint number of runs, each
+ * run being the varint gap from the end of the previous run and the varint run length minus one; the numbered
+ * section is followed by its values, two 4 bit values per byte in position order. Cascades open mostly empty
+ * cells in long horizontal runs, so thousands of cells take a few hundred bytes.
+ *
+ * Encoding sorts the positions in scratch arrays kept by the codec. Decoding writes straight into a mirror
+ * CellGrid and allocates nothing.
+ */
+public class BoardDeltaCodec {
+    private static final int WON = 1;
+    private static final int LOST = 2;
+    private static final int RESET = 4;
+
+    private static final int EMPTY = 0;
+    private static final int NUMBERED = 1;
+    private static final int MARKED = 2;
+    private static final int UNMARKED = 3;
+    private static final int MINES = 4;
+    private static final int INCORRECT_MARKS = 5;
+    private static final int SECTIONS = 6;
+
+    private long[] opened = new long[64];
+    private int[][] sections = new int[SECTIONS][64];
+    private byte[] numberedValues = new byte[64];
+    private final int[] sectionSizes = new int[SECTIONS];
+
+    private int flags;
+    private int remainingMines;
+
+    // An upper bound of the encoded size of the update.
+    public static int maxEncodedSize(BoardUpdate update) {
+        // worst case every cell is a run of its own: two varints of up to five bytes, plus the values
+        return 2 + 5 + SECTIONS * 5 + update.size() * 10 + (update.getOpenedCount() + 1) / 2;
+    }
+
+    // Writes the delta of the update at the position of the buffer and returns its length in bytes.
+    public int encode(BoardUpdate update, ByteBuffer out) {
+        int start = out.position();
+        int openedCount = update.getOpenedCount();
+        if (opened.length < openedCount) opened = new long[Math.max(openedCount, opened.length * 2)];
+        for (int i = 0; i < openedCount; i++) {
+            opened[i] = (long) update.getOpenedPosition(i) << 4 | update.getOpenedValue(i);
+        }
+        Arrays.sort(opened, 0, openedCount);
+        Arrays.fill(sectionSizes, 0);
+        for (int i = 0; i < openedCount; i++) {
+            int value = (int) opened[i] & 0x0F;
+            if (value == Cell.EMPTY) {
+                add(EMPTY, (int) (opened[i] >>> 4));
+            } else {
+                if (sectionSizes[NUMBERED] == numberedValues.length) {
+                    numberedValues = Arrays.copyOf(numberedValues, numberedValues.length * 2);
+                }
+                numberedValues[sectionSizes[NUMBERED]] = (byte) value;
+                add(NUMBERED, (int) (opened[i] >>> 4));
+            }
+        }
+        for (int i = 0; i < update.getMarkedCount(); i++) add(MARKED, update.getMarkedPosition(i));
+        for (int i = 0; i < update.getUnmarkedCount(); i++) add(UNMARKED, update.getUnmarkedPosition(i));
+        for (int i = 0; i < update.getMineCount(); i++) add(MINES, update.getMinePosition(i));
+        for (int i = 0; i < update.getIncorrectMarkCount(); i++) {
+            add(INCORRECT_MARKS, update.getIncorrectMarkPosition(i));
+        }
+
+        int present = 0;
+        for (int section = 0; section < SECTIONS; section++) {
+            if (sectionSizes[section] > 0) present |= 1 << section;
+        }
+        out.put((byte) ((update.isGameWon() ? WON : 0) | (update.isGameLost() ? LOST : 0)
+                | (update.isReset() ? RESET : 0)));
+        out.put((byte) present);
+        putVarint(out, zigzag(update.getRemainingMines()));
+        for (int section = 0; section < SECTIONS; section++) {
+            int size = sectionSizes[section];
+            if (size == 0) continue;
+            int[] positions = sections[section];
+            // opened cells were sorted above, the others are sorted here
+            if (section > NUMBERED) Arrays.sort(positions, 0, size);
+            putRuns(out, positions, size);
+            if (section == NUMBERED) {
+                for (int k = 0; k < size; k += 2) {
+                    int high = k + 1 < size ? numberedValues[k + 1] : 0;
+                    out.put((byte) (numberedValues[k] | high << 4));
+                }
+            }
+        }
+        return out.position() - start;
+    }
+
+    /*
+     * Applies the delta at the position of the buffer to the mirror grid, which must have the dimensions of
+     * the encoded board. Incorrect marks leave their cells marked, since a grid has no state for them.
+     * Returns the number of cells changed.
+     */
+    public int decode(ByteBuffer in, CellGrid mirror) {
+        flags = in.get();
+        int present = in.get();
+        remainingMines = unzigzag(getVarint(in));
+        if ((flags & RESET) != 0) mirror.clear();
+        int changed = 0;
+        for (int section = 0; section < SECTIONS; section++) {
+            if ((present & (1 << section)) == 0) continue;
+            if (section == NUMBERED) {
+                // the values follow the runs, find them first and then read both together
+                int runsStart = in.position();
+                int cells = skipRuns(in);
+                int valuesStart = in.position();
+                in.position(runsStart);
+                changed += applyNumbered(in, valuesStart, mirror);
+                in.position(valuesStart + (cells + 1) / 2);
+            } else {
+                changed += applyRuns(in, section, mirror);
+            }
+        }
+        return changed;
+    }
+
+    public int getRemainingMines() {
+        return remainingMines;
+    }
+
+    public boolean isGameWon() {
+        return (flags & WON) != 0;
+    }
+
+    public boolean isGameLost() {
+        return (flags & LOST) != 0;
+    }
+
+    public boolean isReset() {
+        return (flags & RESET) != 0;
+    }
+
+    private void add(int section, int position) {
+        int size = sectionSizes[section];
+        if (size == sections[section].length) sections[section] = Arrays.copyOf(sections[section], size * 2);
+        sections[section][size] = position;
+        sectionSizes[section] = size + 1;
+    }
+
+    private static void putRuns(ByteBuffer out, int[] positions, int size) {
+        int runs = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || positions[i] != positions[i - 1] + 1) runs++;
+        }
+        putVarint(out, runs);
+        int previousEnd = 0;
+        int i = 0;
+        while (i < size) {
+            int start = positions[i];
+            int end = start + 1;
+            i++;
+            while (i < size && positions[i] == end) {
+                end++;
+                i++;
+            }
+            putVarint(out, start - previousEnd);
+            putVarint(out, end - start - 1);
+            previousEnd = end;
+        }
+    }
+
+    // Skips the runs of a section and returns how many cells they cover.
+    private static int skipRuns(ByteBuffer in) {
+        int runs = getVarint(in);
+        int cells = 0;
+        for (int run = 0; run < runs; run++) {
+            getVarint(in);
+            cells += getVarint(in) + 1;
+        }
+        return cells;
+    }
+
+    private static int applyRuns(ByteBuffer in, int section, CellGrid mirror) {
+        int runs = getVarint(in);
+        int position = 0;
+        int cells = 0;
+        for (int run = 0; run < runs; run++) {
+            position += getVarint(in);
+            int end = position + getVarint(in) + 1;
+            for (; position < end; position++) {
+                if (section == EMPTY) {
+                    mirror.setValue(position, Cell.EMPTY);
+                    mirror.open(position);
+                } else if (section == MARKED) {
+                    mirror.setMark(position);
+                } else if (section == UNMARKED) {
+                    mirror.unsetMark(position);
+                } else if (section == MINES) {
+                    mirror.setValue(position, Cell.MINE);
+                    mirror.open(position);
+                }
+                cells++;
+            }
+        }
+        return cells;
+    }
+
+    // Reads the numbered runs at the position of the buffer together with their values starting at valuesStart.
+    private static int applyNumbered(ByteBuffer in, int valuesStart, CellGrid mirror) {
+        int runs = getVarint(in);
+        int position = 0;
+        int cells = 0;
+        for (int run = 0; run < runs; run++) {
+            position += getVarint(in);
+            int end = position + getVarint(in) + 1;
+            for (; position < end; position++) {
+                int packed = in.get(valuesStart + cells / 2);
+                mirror.setValue(position, (cells & 1) == 0 ? packed & 0x0F : (packed >>> 4) & 0x0F);
+                mirror.open(position);
+                cells++;
+            }
+        }
+        return cells;
+    }
+
+    private static int zigzag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    private static int unzigzag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void putVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer in) {
+        int value = 0;
+        int shift = 0;
+        byte current;
+        do {
+            current = in.get();
+            value |= (current & 0x7F) << shift;
+            shift += 7;
+        } while ((current & 0x80) != 0);
+        return value;
+    }
+}
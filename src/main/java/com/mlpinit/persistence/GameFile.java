@@ -0,0 +1,137 @@
+package com.mlpinit.persistence;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.GameSnapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+/*
+ * Binary save file for a game in progress, written and read in one piece through a file channel.
+ *
+ * Layout (big endian): magic, version, height, width, number of mines, seed, state ordinal, remaining mines,
+ * elapsed milliseconds, number of cells, CRC32 of the cells, followed by the packed cells, one byte each.
+ * Files are written next to the target and moved into place, so a crash never leaves a half written save.
+ * Nothing is memory mapped: a mapping outlives the channel until it is collected, and Windows refuses to move
+ * or replace a file that is still mapped.
+ */
+public class GameFile {
+    private static final int MAGIC = 0x4D535750; // "MSWP"
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 2 + 4 + 4 + 4 + 8 + 1 + 4 + 8 + 4 + 8;
+    private static final Board.State[] STATES = Board.State.values();
+    // Default location, can be moved with -Dminesweeper.save=<file>.
+    public static final String DEFAULT_PATH = System.getProperty("minesweeper.save",
+            Paths.get(System.getProperty("user.home"), ".minesweeper", "game.save").toString());
+
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "minesweeper-save");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Writes the snapshot on a background thread. The snapshot is a copy, so the game can go on meanwhile.
+    public static CompletableFuture<Void> saveAsync(Path path, GameSnapshot snapshot) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                save(path, snapshot);
+            } catch (IOException e) {
+                throw new RuntimeException("Could not save game to " + path, e);
+            }
+        }, writer);
+    }
+
+    public static void save(Path path, GameSnapshot snapshot) throws IOException {
+        byte[] cells = snapshot.getCells();
+        CRC32 checksum = new CRC32();
+        checksum.update(cells, 0, cells.length);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + cells.length);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putInt(snapshot.getHeight());
+        buffer.putInt(snapshot.getWidth());
+        buffer.putInt(snapshot.getNrOfMines());
+        buffer.putLong(snapshot.getSeed());
+        buffer.put((byte) snapshot.getState().ordinal());
+        buffer.putInt(snapshot.getRemainingMines());
+        buffer.putLong(snapshot.getElapsedMillis());
+        buffer.putInt(cells.length);
+        buffer.putLong(checksum.getValue());
+        buffer.put(cells);
+        buffer.flip();
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) channel.write(buffer);
+            channel.force(true);
+        }
+        // the channel is closed before the move, nothing holds the temporary file open any more
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static GameSnapshot load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_BYTES || fileSize > Integer.MAX_VALUE) {
+                throw new IOException("Not a save file: " + path);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) fileSize);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) throw new IOException("Truncated save file: " + path);
+            }
+            buffer.flip();
+            if (buffer.getInt() != MAGIC) throw new IOException("Not a save file: " + path);
+            short version = buffer.getShort();
+            if (version != VERSION) throw new IOException("Unsupported save file version " + version + ".");
+            int height = buffer.getInt();
+            int width = buffer.getInt();
+            int nrOfMines = buffer.getInt();
+            long seed = buffer.getLong();
+            int stateOrdinal = buffer.get();
+            int remainingMines = buffer.getInt();
+            long elapsedMillis = buffer.getLong();
+            int cellCount = buffer.getInt();
+            long expectedChecksum = buffer.getLong();
+            // the header is not covered by the checksum, so every field is checked before it is trusted
+            long size = (long) height * width;
+            if (height < 1 || width < 1 || size > Integer.MAX_VALUE) {
+                throw new IOException("Corrupt save file, dimensions " + height + "x" + width + ": " + path);
+            }
+            if (nrOfMines < 0 || nrOfMines >= size || remainingMines > nrOfMines
+                    || remainingMines < nrOfMines - size) {
+                throw new IOException("Corrupt save file, " + nrOfMines + " mines with " + remainingMines
+                        + " remaining: " + path);
+            }
+            if (stateOrdinal < 0 || stateOrdinal >= STATES.length) {
+                throw new IOException("Corrupt save file, state " + stateOrdinal + ": " + path);
+            }
+            Board.State state = STATES[stateOrdinal];
+            if (elapsedMillis < 0) {
+                throw new IOException("Corrupt save file, elapsed time " + elapsedMillis + ": " + path);
+            }
+            // a game that has not started has no cells yet
+            if (cellCount != size && !(cellCount == 0 && state == Board.State.NOT_STARTED)) {
+                throw new IOException("Corrupt save file, " + cellCount + " cells on " + height + "x" + width + ": "
+                        + path);
+            }
+            if (buffer.remaining() != cellCount) throw new IOException("Truncated save file: " + path);
+            byte[] cells = new byte[cellCount];
+            buffer.get(cells);
+            CRC32 checksum = new CRC32();
+            checksum.update(cells, 0, cells.length);
+            if (checksum.getValue() != expectedChecksum) throw new IOException("Corrupt save file: " + path);
+            return new GameSnapshot(height, width, nrOfMines, seed, state, remainingMines, elapsedMillis, cells);
+        }
+    }
+}
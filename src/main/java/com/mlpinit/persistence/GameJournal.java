@@ -0,0 +1,341 @@
+package com.mlpinit.persistence;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.BoardAction;
+import com.mlpinit.models.BoardGenerator;
+import com.mlpinit.models.BoardRequest;
+import com.mlpinit.solver.NoGuessBoardGenerator;
+import com.mlpinit.utils.Log;
+import rx.Observable;
+import rx.Subscription;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/*
+ * Append only record of a game: the board settings including the generator and its seed, followed by every
+ * executed BoardRequest with the time it was made. Together they are enough to replay the game exactly.
+ *
+ * Everything is stored as unsigned LEB128 varints (the seed zigzag encoded): a header of magic, version,
+ * generator ordinal, height, width, number of mines and seed, then per request the microseconds since the
+ * previous request, the action ordinal and the x and y coordinates. A typical move takes four to six bytes.
+ * The entries simply run to the end of the journal, so a journal opened on a file appends every request to it as
+ * it is recorded, and a crash loses at most the entry that was being written.
+ */
+public class GameJournal implements Closeable {
+    private static final String TAG = "[GameJournal]";
+    private static final int MAGIC = 0x4D534A4C; // "MSJL"
+    private static final int VERSION = 2;
+    private static final BoardAction[] ACTIONS = BoardAction.values();
+    private static final Generator[] GENERATORS = Generator.values();
+
+    // How the mines of the recorded board were placed from its seed.
+    public enum Generator {
+        RANDOM,
+        NO_GUESS;
+
+        public static Generator of(Board board) {
+            return board.getGenerator() instanceof NoGuessBoardGenerator ? NO_GUESS : RANDOM;
+        }
+
+        public BoardGenerator create() {
+            return this == NO_GUESS ? new NoGuessBoardGenerator() : new BoardGenerator();
+        }
+    }
+
+    private final Generator generator;
+    private final int height;
+    private final int width;
+    private final int nrOfMines;
+    private final long seed;
+    private final VarintBuffer entries;
+    private int size = 0;
+    private long startNanos = System.nanoTime();
+    private long lastMicros = 0;
+    // File the entries are appended to, null for journals that are only kept in memory.
+    private FileChannel channel;
+
+    public GameJournal(int height, int width, int nrOfMines, long seed) {
+        this(Generator.RANDOM, height, width, nrOfMines, seed);
+    }
+
+    public GameJournal(Generator generator, int height, int width, int nrOfMines, long seed) {
+        this(generator, height, width, nrOfMines, seed, new VarintBuffer(new byte[256], 0));
+    }
+
+    private GameJournal(Generator generator, int height, int width, int nrOfMines, long seed,
+                        VarintBuffer entries) {
+        this.generator = generator;
+        this.height = height;
+        this.width = width;
+        this.nrOfMines = nrOfMines;
+        this.seed = seed;
+        this.entries = entries;
+    }
+
+    // Journal for a board that has not been played yet.
+    public static GameJournal forBoard(Board board) {
+        return new GameJournal(Generator.of(board), board.getHeight(), board.getWidth(), board.getNrOfMines(),
+                board.getSeed());
+    }
+
+    // Journal for a board that has not been played yet, writing the header and every recorded request to path.
+    public static GameJournal open(Path path, Board board) throws IOException {
+        GameJournal journal = forBoard(board);
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            VarintBuffer header = journal.header();
+            write(channel, header.bytes, 0, header.length);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        journal.channel = channel;
+        return journal;
+    }
+
+    public Subscription recordFrom(Observable<BoardRequest> boardRequestObservable) {
+        return boardRequestObservable.subscribe(this::append);
+    }
+
+    public void append(BoardRequest boardRequest) {
+        append(boardRequest, System.nanoTime());
+    }
+
+    // Time stamps are monotonic, a request can never be recorded before the previous one. Requests without an
+    // action, such as a released middle click, do nothing on the board and are not recorded.
+    public synchronized void append(BoardRequest boardRequest, long nanoTime) {
+        if (boardRequest.getActionType() == null) return;
+        long micros = Math.max(lastMicros, (nanoTime - startNanos) / 1000);
+        int start = entries.length;
+        entries.write(micros - lastMicros);
+        entries.write(boardRequest.getActionType().ordinal());
+        entries.write(boardRequest.getX());
+        entries.write(boardRequest.getY());
+        lastMicros = micros;
+        size++;
+        if (channel == null) return;
+        try {
+            write(channel, entries.bytes, start, entries.length - start);
+        } catch (IOException e) {
+            // the game goes on, it is still recorded in memory and can be saved as a whole
+            Log.warn(TAG, "Could not append to the journal, recording in memory only: " + e);
+            closeChannel();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getNrOfMines() {
+        return nrOfMines;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public Generator getGenerator() {
+        return generator;
+    }
+
+    // A fresh board that generates the same mines as the recorded one.
+    public Board newBoard() {
+        Board board = new Board(height, width, nrOfMines, seed);
+        board.setGenerator(generator.create());
+        return board;
+    }
+
+    public synchronized Cursor cursor() {
+        return new Cursor(new VarintBuffer(entries.bytes, entries.length));
+    }
+
+    public synchronized byte[] toByteArray() {
+        VarintBuffer header = header();
+        byte[] bytes = Arrays.copyOf(header.bytes, header.length + entries.length);
+        System.arraycopy(entries.bytes, 0, bytes, header.length, entries.length);
+        return bytes;
+    }
+
+    /*
+     * Reads a journal. An entry cut off at the end, as left by a crash while it was appended, is dropped; other
+     * corrupt entries are reported by the cursor.
+     */
+    public static GameJournal fromByteArray(byte[] bytes) throws IOException {
+        VarintBuffer header = new VarintBuffer(bytes, bytes.length);
+        if (header.read() != MAGIC) throw new IOException("Not a game journal.");
+        long version = header.read();
+        if (version != VERSION) throw new IOException("Unsupported journal version " + version + ".");
+        long generator = header.read();
+        long height = header.read();
+        long width = header.read();
+        long nrOfMines = header.read();
+        long zigzagSeed = header.read();
+        if (generator >= GENERATORS.length || height < 1 || width < 1 || height * width > Integer.MAX_VALUE
+                || nrOfMines >= height * width) {
+            throw new IOException("Corrupt journal header.");
+        }
+        VarintBuffer scan = new VarintBuffer(bytes, bytes.length);
+        scan.position = header.position;
+        int size = 0;
+        int end = scan.position;
+        try {
+            while (scan.hasRemaining()) {
+                for (int field = 0; field < 4; field++) scan.read();
+                size++;
+                end = scan.position;
+            }
+        } catch (IOException torn) {
+            Log.warn(TAG, "Dropping " + (bytes.length - end) + " bytes of a cut off journal entry.");
+        }
+        byte[] entries = Arrays.copyOfRange(bytes, header.position, end);
+        GameJournal journal = new GameJournal(GENERATORS[(int) generator], (int) height, (int) width,
+                (int) nrOfMines, (zigzagSeed >>> 1) ^ -(zigzagSeed & 1), new VarintBuffer(entries, entries.length));
+        journal.size = size;
+        return journal;
+    }
+
+    public void save(Path path) throws IOException {
+        Files.write(path, toByteArray());
+    }
+
+    public static GameJournal load(Path path) throws IOException {
+        return fromByteArray(Files.readAllBytes(path));
+    }
+
+    // Stops appending to the file of a journal created with open. The journal itself stays usable.
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel == null) return;
+        FileChannel closing = channel;
+        channel = null;
+        closing.close();
+    }
+
+    private VarintBuffer header() {
+        VarintBuffer header = new VarintBuffer(new byte[64], 0);
+        header.write(MAGIC);
+        header.write(VERSION);
+        header.write(generator.ordinal());
+        header.write(height);
+        header.write(width);
+        header.write(nrOfMines);
+        header.write((seed << 1) ^ (seed >> 63));
+        return header;
+    }
+
+    private void closeChannel() {
+        try {
+            close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void write(FileChannel channel, byte[] bytes, int offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+    /*
+     * Reads the recorded requests in order without allocating. Call next() before reading each request.
+     * A truncated or corrupt entry is reported with an IOException.
+     */
+    public class Cursor {
+        private final VarintBuffer entries;
+        private long micros = 0;
+        private BoardAction action;
+        private int x;
+        private int y;
+
+        private Cursor(VarintBuffer entries) {
+            this.entries = entries;
+        }
+
+        public boolean next() throws IOException {
+            if (!entries.hasRemaining()) return false;
+            micros += entries.read();
+            long ordinal = entries.read();
+            if (ordinal >= ACTIONS.length) throw new IOException("Corrupt journal entry: action " + ordinal + ".");
+            action = ACTIONS[(int) ordinal];
+            long entryX = entries.read();
+            long entryY = entries.read();
+            if (entryX >= height || entryY >= width) {
+                throw new IOException("Corrupt journal entry: cell " + entryX + "," + entryY + ".");
+            }
+            x = (int) entryX;
+            y = (int) entryY;
+            return true;
+        }
+
+        // Microseconds between the start of the recording and this request.
+        public long getMicros() {
+            return micros;
+        }
+
+        public BoardAction getAction() {
+            return action;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+    }
+
+    // Unsigned LEB128 encoding: seven bits per byte, the high bit set on every byte but the last.
+    private static class VarintBuffer {
+        private byte[] bytes;
+        private int length;
+        private int position = 0;
+
+        VarintBuffer(byte[] bytes, int length) {
+            this.bytes = bytes;
+            this.length = length;
+        }
+
+        void write(long value) {
+            if (length + 10 > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + 10));
+            while ((value & ~0x7FL) != 0) {
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+
+        boolean hasRemaining() {
+            return position < length;
+        }
+
+        long read() throws IOException {
+            long value = 0;
+            int shift = 0;
+            byte current;
+            do {
+                if (position >= length || shift > 63) throw new IOException("Truncated or corrupt journal.");
+                current = bytes[position++];
+                value |= (long) (current & 0x7F) << shift;
+                shift += 7;
+            } while ((current & 0x80) != 0);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.mlpinit.persistence;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.GameMode;
+
+// The result of one finished game, as kept by the StatisticsStore.
+public class GameRecord {
+    private final GameMode mode;
+    private final int height;
+    private final int width;
+    private final int nrOfMines;
+    private final long elapsedMillis;
+    private final int moves;
+    private final boolean won;
+    private final int threeBV;
+    private final long finishedAtMillis;
+
+    public GameRecord(GameMode mode, int height, int width, int nrOfMines, long elapsedMillis, int moves,
+                      boolean won, int threeBV, long finishedAtMillis) {
+        this.mode = mode;
+        this.height = height;
+        this.width = width;
+        this.nrOfMines = nrOfMines;
+        this.elapsedMillis = elapsedMillis;
+        this.moves = moves;
+        this.won = won;
+        this.threeBV = threeBV;
+        this.finishedAtMillis = finishedAtMillis;
+    }
+
+    // Record of a board whose game just ended.
+    public static GameRecord of(Board board, long elapsedMillis) {
+        return new GameRecord(GameMode.of(board.getHeight(), board.getWidth(), board.getNrOfMines()),
+                board.getHeight(), board.getWidth(), board.getNrOfMines(), elapsedMillis, board.getMoves(),
+                board.isGameWon(), board.getThreeBV(), System.currentTimeMillis());
+    }
+
+    public GameMode getMode() {
+        return mode;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getNrOfMines() {
+        return nrOfMines;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public int getMoves() {
+        return moves;
+    }
+
+    public boolean isWon() {
+        return won;
+    }
+
+    // -1 when the board was never generated.
+    public int getThreeBV() {
+        return threeBV;
+    }
+
+    public long getFinishedAtMillis() {
+        return finishedAtMillis;
+    }
+
+    public String toString() {
+        return mode + " " + height + "x" + width + "/" + nrOfMines + (won ? " won in " : " lost after ")
+                + elapsedMillis + " ms, " + moves + " moves, 3BV " + threeBV;
+    }
+}
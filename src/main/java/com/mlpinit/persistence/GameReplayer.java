@@ -0,0 +1,48 @@
+package com.mlpinit.persistence;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.BoardRequest;
+import com.mlpinit.models.Coordinate;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * Executes the requests of a GameJournal against a board, either as fast as possible or with the recorded
+ * timing between requests.
+ */
+public class GameReplayer {
+
+    // Replays the journal headlessly at maximum speed and returns the resulting board.
+    public static Board replay(GameJournal journal) throws IOException {
+        Board board = journal.newBoard();
+        replay(journal, board, false);
+        return board;
+    }
+
+    /*
+     * Replays the journal against a board created with the journal's settings, see GameJournal.newBoard().
+     * In real time mode the calling thread waits until each request is due. Requests before a corrupt entry
+     * have been executed when the IOException is thrown.
+     */
+    public static void replay(GameJournal journal, Board board, boolean realTime) throws IOException {
+        if (GameJournal.Generator.of(board) != journal.getGenerator()) {
+            throw new IllegalArgumentException("The journal was recorded on a board with the "
+                    + journal.getGenerator() + " generator.");
+        }
+        long startNanos = System.nanoTime();
+        GameJournal.Cursor cursor = journal.cursor();
+        while (cursor.next()) {
+            if (realTime) waitUntil(startNanos + TimeUnit.MICROSECONDS.toNanos(cursor.getMicros()));
+            board.execute(new BoardRequest(new Coordinate(cursor.getX(), cursor.getY()), cursor.getAction()));
+        }
+    }
+
+    private static void waitUntil(long dueNanos) {
+        long remaining;
+        while ((remaining = dueNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.mlpinit.persistence;
+
+import com.mlpinit.models.GameMode;
+
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Running totals and the fastest wins of one game mode. Adding a game costs at most a shift of the top list, so
+ * the size of the history never shows up in updates or queries.
+ */
+public class ModeStatistics {
+    private final GameMode mode;
+    private final GameRecord[] fastestWins;
+    private int fastestCount = 0;
+    private long games = 0;
+    private long wins = 0;
+    private long totalMoves = 0;
+    private long totalWinMillis = 0;
+    private long totalWinThreeBV = 0;
+
+    ModeStatistics(GameMode mode, int topSize) {
+        this.mode = mode;
+        this.fastestWins = new GameRecord[topSize];
+    }
+
+    private ModeStatistics(ModeStatistics other) {
+        this.mode = other.mode;
+        this.fastestWins = other.fastestWins.clone();
+        this.fastestCount = other.fastestCount;
+        this.games = other.games;
+        this.wins = other.wins;
+        this.totalMoves = other.totalMoves;
+        this.totalWinMillis = other.totalWinMillis;
+        this.totalWinThreeBV = other.totalWinThreeBV;
+    }
+
+    void add(GameRecord record) {
+        games++;
+        totalMoves += record.getMoves();
+        if (!record.isWon()) return;
+        wins++;
+        totalWinMillis += record.getElapsedMillis();
+        if (record.getThreeBV() > 0) totalWinThreeBV += record.getThreeBV();
+        // insertion into the sorted top list, ties keep the earlier game first
+        int index = fastestCount;
+        while (index > 0 && fastestWins[index - 1].getElapsedMillis() > record.getElapsedMillis()) index--;
+        if (index == fastestWins.length) return;
+        int moved = Math.min(fastestCount, fastestWins.length - 1) - index;
+        System.arraycopy(fastestWins, index, fastestWins, index + 1, moved);
+        fastestWins[index] = record;
+        fastestCount = Math.min(fastestCount + 1, fastestWins.length);
+    }
+
+    ModeStatistics copy() {
+        return new ModeStatistics(this);
+    }
+
+    public GameMode getMode() {
+        return mode;
+    }
+
+    public long getGames() {
+        return games;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public double getWinRate() {
+        return games == 0 ? 0 : (double) wins / games;
+    }
+
+    public double getAverageMoves() {
+        return games == 0 ? 0 : (double) totalMoves / games;
+    }
+
+    public double getAverageWinMillis() {
+        return wins == 0 ? 0 : (double) totalWinMillis / wins;
+    }
+
+    // 3BV cleared per second over all won games, the usual measure of playing speed.
+    public double getThreeBVPerSecond() {
+        return totalWinMillis == 0 ? 0 : totalWinThreeBV * 1000.0 / totalWinMillis;
+    }
+
+    // Fastest won game, or -1 without wins.
+    public long getBestMillis() {
+        return fastestCount == 0 ? -1 : fastestWins[0].getElapsedMillis();
+    }
+
+    // The fastest wins, fastest first.
+    public List<GameRecord> getFastestWins() {
+        return Arrays.asList(Arrays.copyOf(fastestWins, fastestCount));
+    }
+
+    public String toString() {
+        return mode + ": " + games + " games, " + wins + " won, best " + getBestMillis() + " ms";
+    }
+}
@@ -0,0 +1,207 @@
+package com.mlpinit.persistence;
+
+import com.mlpinit.models.GameMode;
+import com.mlpinit.utils.Log;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+/*
+ * Append only log of every finished game, with the statistics of each mode kept in memory.
+ *
+ * The file starts with a magic number and version, followed by fixed size records (big endian): mode ordinal,
+ * outcome, height, width, number of mines, elapsed milliseconds, moves, 3BV, finish time and a CRC32 of the
+ * preceding bytes of the record. Opening a store streams the log once to rebuild the statistics. A record whose
+ * checksum does not match is skipped with a warning and keeps its place, so the records after it stay readable.
+ * A torn tail, as left by a crash during an append, is cut off so later records stay aligned.
+ */
+public class StatisticsStore implements Closeable {
+    private static final String TAG = "[StatisticsStore]";
+    private static final int MAGIC = 0x4D535354; // "MSST"
+    private static final short VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 2;
+    private static final int DATA_BYTES = 1 + 1 + 2 + 2 + 4 + 8 + 4 + 4 + 8;
+    static final int RECORD_BYTES = DATA_BYTES + 4;
+    private static final GameMode[] MODES = GameMode.values();
+    public static final int DEFAULT_TOP_SIZE = 10;
+    // Default location, can be moved with -Dminesweeper.statistics=<file>.
+    public static final String DEFAULT_PATH = System.getProperty("minesweeper.statistics",
+            Paths.get(System.getProperty("user.home"), ".minesweeper", "statistics.log").toString());
+
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "minesweeper-statistics");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final FileChannel channel;
+    private final Map<GameMode, ModeStatistics> statistics = new EnumMap<>(GameMode.class);
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_BYTES);
+    private final CRC32 checksum = new CRC32();
+    // Readable records, and the records in the file including the corrupt ones.
+    private long records = 0;
+    private long slots = 0;
+
+    private StatisticsStore(FileChannel channel, int topSize) {
+        this.channel = channel;
+        for (GameMode mode : GameMode.values()) statistics.put(mode, new ModeStatistics(mode, topSize));
+    }
+
+    public static StatisticsStore open(Path path) throws IOException {
+        return open(path, DEFAULT_TOP_SIZE);
+    }
+
+    public static StatisticsStore open(Path path, int topSize) throws IOException {
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        StatisticsStore store = new StatisticsStore(channel, topSize);
+        try {
+            store.load(path);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return store;
+    }
+
+    // Appends the game on a background thread, the statistics include it right away.
+    public CompletableFuture<Void> recordAsync(GameRecord game) {
+        synchronized (this) {
+            statistics.get(game.getMode()).add(game);
+        }
+        return CompletableFuture.runAsync(() -> {
+            try {
+                append(game);
+            } catch (IOException e) {
+                // nobody may be waiting for the future, the game is still in the statistics until the next start
+                Log.warn(TAG, "Could not record game " + game + ": " + e);
+                throw new RuntimeException("Could not record game " + game, e);
+            }
+        }, writer);
+    }
+
+    public void record(GameRecord game) throws IOException {
+        synchronized (this) {
+            statistics.get(game.getMode()).add(game);
+        }
+        append(game);
+    }
+
+    // A copy of the statistics of the mode, unaffected by games recorded later.
+    public synchronized ModeStatistics getStatistics(GameMode mode) {
+        return statistics.get(mode).copy();
+    }
+
+    public synchronized List<GameRecord> getFastestWins(GameMode mode) {
+        return statistics.get(mode).getFastestWins();
+    }
+
+    public synchronized long getRecords() {
+        return records;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    private synchronized void append(GameRecord game) throws IOException {
+        record.clear();
+        record.put((byte) game.getMode().ordinal());
+        record.put((byte) (game.isWon() ? 1 : 0));
+        record.putShort((short) game.getHeight());
+        record.putShort((short) game.getWidth());
+        record.putInt(game.getNrOfMines());
+        record.putLong(game.getElapsedMillis());
+        record.putInt(game.getMoves());
+        record.putInt(game.getThreeBV());
+        record.putLong(game.getFinishedAtMillis());
+        checksum.reset();
+        checksum.update(record.array(), 0, DATA_BYTES);
+        record.putInt((int) checksum.getValue());
+        record.flip();
+        long position = HEADER_BYTES + slots * RECORD_BYTES;
+        while (record.hasRemaining()) position += channel.write(record, position);
+        channel.force(false);
+        slots++;
+        records++;
+    }
+
+    private void load(Path path) throws IOException {
+        if (channel.size() < HEADER_BYTES) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putShort(VERSION);
+            header.flip();
+            channel.truncate(0);
+            channel.write(header, 0);
+            channel.force(true);
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(RECORD_BYTES * 1024);
+        channel.read(buffer, 0);
+        buffer.flip();
+        if (buffer.getInt() != MAGIC) throw new IOException("Not a statistics file: " + path);
+        short version = buffer.getShort();
+        if (version != VERSION) throw new IOException("Unsupported statistics file version " + version + ".");
+        slots = (channel.size() - HEADER_BYTES) / RECORD_BYTES;
+        long end = HEADER_BYTES + slots * RECORD_BYTES;
+        if (channel.size() > end) {
+            Log.warn(TAG, "Dropping " + (channel.size() - end) + " bytes of a torn record at the end of " + path);
+            channel.truncate(end);
+        }
+        long corrupt = 0;
+        for (long position = HEADER_BYTES; position < end; position += buffer.limit()) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) throw new EOFException(path.toString());
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                GameRecord game = decode(buffer);
+                if (game == null) {
+                    corrupt++;
+                } else {
+                    statistics.get(game.getMode()).add(game);
+                    records++;
+                }
+            }
+        }
+        if (corrupt > 0) Log.warn(TAG, "Skipped " + corrupt + " corrupt records in " + path);
+    }
+
+    // The record at the position of the buffer, or null when it is corrupt. Moves past the record either way.
+    private GameRecord decode(ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.position(start + RECORD_BYTES);
+        checksum.reset();
+        checksum.update(buffer.array(), buffer.arrayOffset() + start, DATA_BYTES);
+        if (buffer.getInt(start + DATA_BYTES) != (int) checksum.getValue()) return null;
+        int mode = buffer.get(start);
+        if (mode < 0 || mode >= MODES.length) return null;
+        boolean won = buffer.get(start + 1) != 0;
+        int height = buffer.getShort(start + 2) & 0xFFFF;
+        int width = buffer.getShort(start + 4) & 0xFFFF;
+        int nrOfMines = buffer.getInt(start + 6);
+        long elapsedMillis = buffer.getLong(start + 10);
+        int moves = buffer.getInt(start + 18);
+        int threeBV = buffer.getInt(start + 22);
+        long finishedAtMillis = buffer.getLong(start + 26);
+        return new GameRecord(MODES[mode], height, width, nrOfMines, elapsedMillis, moves, won,
+                threeBV, finishedAtMillis);
+    }
+}
@@ -0,0 +1,204 @@
+package com.mlpinit.server;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.BoardAction;
+import com.mlpinit.models.BoardRequest;
+import com.mlpinit.models.BoardUpdate;
+import com.mlpinit.models.Coordinate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * A client connection and the sessions it created. Requests are decoded straight from the read buffer and the
+ * responses appended to a single write buffer, which grows only when a response (a large cascade) does not fit.
+ *
+ * A client that sends requests without reading the responses is not read from while more than HIGH_WATER_BYTES
+ * of responses are pending, so the write buffer never holds more than that plus one response. Requests already
+ * read are answered once the socket has taken enough of the pending responses.
+ */
+class Connection {
+    private static final int BUFFER_BYTES = 1 << 16;
+    private static final int HIGH_WATER_BYTES = 1 << 20;
+
+    private final GameServer server;
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final Map<Integer, Session> sessions = new HashMap<>();
+    private final ByteBuffer in = ByteBuffer.allocate(BUFFER_BYTES);
+    private ByteBuffer out = ByteBuffer.allocate(BUFFER_BYTES);
+
+    Connection(GameServer server, SocketChannel channel, SelectionKey key) {
+        this.server = server;
+        this.channel = channel;
+        this.key = key;
+    }
+
+    // Reads and answers the complete requests. Returns false when the connection should be closed.
+    boolean read() throws IOException {
+        if (channel.read(in) < 0) return false;
+        return flush();
+    }
+
+    // Writes as much of the pending responses as the socket takes, answers the requests waiting in the read
+    // buffer while there is room for their responses, and reads again only below the high water mark.
+    boolean flush() throws IOException {
+        write();
+        int pending;
+        while ((pending = in.position()) > 0 && out.position() < HIGH_WATER_BYTES) {
+            if (!answer()) return false;
+            write();
+            // only part of a request is left
+            if (in.position() == pending) break;
+        }
+        int ops = out.position() < HIGH_WATER_BYTES ? SelectionKey.OP_READ : 0;
+        if (out.position() > 0) ops |= SelectionKey.OP_WRITE;
+        key.interestOps(ops);
+        return true;
+    }
+
+    void close() {
+        for (Session session : sessions.values()) session.close();
+        server.sessionsClosed(sessions.size());
+        sessions.clear();
+        key.cancel();
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    // Answers complete requests until the pending responses reach the high water mark. Returns false when the
+    // stream is out of sync.
+    private boolean answer() {
+        in.flip();
+        while (in.remaining() >= Protocol.LENGTH_BYTES && out.position() < HIGH_WATER_BYTES) {
+            int length = in.getInt(in.position());
+            if (length <= 0 || length > Protocol.MAX_REQUEST_BYTES) return false;
+            if (in.remaining() < Protocol.LENGTH_BYTES + length) break;
+            int end = in.position() + Protocol.LENGTH_BYTES + length;
+            in.position(in.position() + Protocol.LENGTH_BYTES);
+            handle(in.get(), length);
+            in.position(end);
+        }
+        in.compact();
+        return true;
+    }
+
+    private void write() throws IOException {
+        out.flip();
+        channel.write(out);
+        out.compact();
+    }
+
+    private void handle(byte opcode, int length) {
+        if (length != requestBytes(opcode)) {
+            status(Protocol.BAD_REQUEST);
+            return;
+        }
+        try {
+            if (opcode == Protocol.NEW_GAME) {
+                newGame(in.getShort() & 0xFFFF, in.getShort() & 0xFFFF, in.getInt(), in.getLong());
+            } else if (opcode == Protocol.MOVE) {
+                move(in.getInt(), in.get(), in.getShort() & 0xFFFF, in.getShort() & 0xFFFF);
+            } else {
+                closeSession(in.getInt());
+            }
+        } catch (RuntimeException e) {
+            // a board that can not be generated
+            status(Protocol.BAD_REQUEST);
+        }
+    }
+
+    // Frame length of a request with the given opcode, -1 for unknown opcodes.
+    private static int requestBytes(byte opcode) {
+        if (opcode == Protocol.NEW_GAME) return Protocol.NEW_GAME_BYTES;
+        if (opcode == Protocol.MOVE) return Protocol.MOVE_BYTES;
+        if (opcode == Protocol.CLOSE) return Protocol.CLOSE_BYTES;
+        return -1;
+    }
+
+    private void newGame(int height, int width, int nrOfMines, long seed) {
+        int cells = height * width;
+        if (height == 0 || width == 0 || cells > Protocol.MAX_CELLS || nrOfMines < 0 || nrOfMines >= cells) {
+            status(Protocol.BAD_REQUEST);
+            return;
+        }
+        Session session = new Session(server.nextSessionId(), new Board(height, width, nrOfMines, seed));
+        sessions.put(session.getId(), session);
+        int start = begin(5);
+        out.put(Protocol.OK);
+        out.putInt(session.getId());
+        end(start);
+    }
+
+    private void move(int sessionId, int action, int x, int y) {
+        Session session = sessions.get(sessionId);
+        if (session == null) {
+            status(Protocol.UNKNOWN_SESSION);
+            return;
+        }
+        Board board = session.getBoard();
+        if (action < 0 || action >= Protocol.ACTIONS.length || x >= board.getHeight() || y >= board.getWidth()) {
+            status(Protocol.BAD_REQUEST);
+            return;
+        }
+        BoardAction boardAction = Protocol.ACTIONS[action];
+        BoardUpdate update = session.execute(new BoardRequest(new Coordinate(x, y), boardAction));
+        server.moved();
+        int opened = update.getOpenedCount();
+        int mines = update.getMineCount();
+        int start = begin(15 + 5 * opened + 4 * mines);
+        out.put(Protocol.OK);
+        out.put((byte) board.getState().ordinal());
+        out.put(update.isGameWon() ? Protocol.WON : update.isGameLost() ? Protocol.LOST : Protocol.PLAYING);
+        out.putInt(update.getRemainingMines());
+        out.putInt(opened);
+        for (int i = 0; i < opened; i++) {
+            out.putInt(update.getOpenedPosition(i));
+            out.put((byte) update.getOpenedValue(i));
+        }
+        out.putInt(mines);
+        for (int i = 0; i < mines; i++) out.putInt(update.getMinePosition(i));
+        end(start);
+    }
+
+    private void closeSession(int sessionId) {
+        Session session = sessions.remove(sessionId);
+        if (session == null) {
+            status(Protocol.UNKNOWN_SESSION);
+            return;
+        }
+        session.close();
+        server.sessionsClosed(1);
+        status(Protocol.OK);
+    }
+
+    private void status(byte status) {
+        int start = begin(1);
+        out.put(status);
+        end(start);
+    }
+
+    // Reserves the length of a response with up to bodyBytes bytes and returns where it starts.
+    private int begin(int bodyBytes) {
+        int needed = Protocol.LENGTH_BYTES + bodyBytes;
+        if (out.remaining() < needed) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + needed));
+            out.flip();
+            larger.put(out);
+            out = larger;
+        }
+        int start = out.position();
+        out.position(start + Protocol.LENGTH_BYTES);
+        return start;
+    }
+
+    private void end(int start) {
+        out.putInt(start, out.position() - start - Protocol.LENGTH_BYTES);
+    }
+}
@@ -0,0 +1,87 @@
+package com.mlpinit.server;
+
+import com.mlpinit.utils.Log;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/*
+ * One selector thread serving a share of the connections. Everything a connection owns, including the boards of
+ * its sessions, is only touched from this thread.
+ */
+class EventLoop implements Runnable {
+    private static final String TAG = "[EventLoop]";
+
+    private final GameServer server;
+    private final Selector selector;
+    private final Queue<SocketChannel> accepted = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    EventLoop(GameServer server) throws IOException {
+        this.server = server;
+        this.selector = Selector.open();
+    }
+
+    // Hands an accepted channel over from the acceptor thread.
+    void register(SocketChannel channel) {
+        accepted.add(channel);
+        selector.wakeup();
+    }
+
+    void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                registerAccepted();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+            }
+        } catch (IOException e) {
+            Log.error(TAG, "Selector failed: " + e);
+        } finally {
+            for (SelectionKey key : selector.keys()) ((Connection) key.attachment()).close();
+            try {
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void registerAccepted() throws IOException {
+        SocketChannel channel;
+        while ((channel = accepted.poll()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+            key.attach(new Connection(server, channel, key));
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        Connection connection = (Connection) key.attachment();
+        try {
+            boolean open = true;
+            if (key.isReadable()) open = connection.read();
+            if (open && key.isValid() && key.isWritable()) open = connection.flush();
+            if (!open) connection.close();
+        } catch (IOException e) {
+            Log.debug(TAG, () -> "Connection failed: " + e);
+            connection.close();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.mlpinit.server;
+
+import com.mlpinit.models.BoardAction;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/*
+ * Blocking client for GameServer. The send methods only buffer a request and the receive methods flush and read
+ * the next response, so a client can pipeline many requests per round trip; the plain methods do both.
+ */
+public class GameClient implements Closeable {
+    private final SocketChannel channel;
+    private final ByteBuffer out = ByteBuffer.allocate(1 << 16);
+    private ByteBuffer in = ByteBuffer.allocate(1 << 16);
+
+    public GameClient(int port) throws IOException {
+        this.channel = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        channel.socket().setTcpNoDelay(true);
+        in.flip();
+    }
+
+    public int newGame(int height, int width, int nrOfMines, long seed) throws IOException {
+        sendNewGame(height, width, nrOfMines, seed);
+        return receiveNewGame();
+    }
+
+    public MoveResponse move(int session, BoardAction action, int x, int y) throws IOException {
+        sendMove(session, action, x, y);
+        return receiveMove();
+    }
+
+    public byte closeGame(int session) throws IOException {
+        sendClose(session);
+        return receiveStatus();
+    }
+
+    public void sendNewGame(int height, int width, int nrOfMines, long seed) throws IOException {
+        request(Protocol.NEW_GAME_BYTES);
+        out.put(Protocol.NEW_GAME).putShort((short) height).putShort((short) width).putInt(nrOfMines).putLong(seed);
+    }
+
+    public void sendMove(int session, BoardAction action, int x, int y) throws IOException {
+        request(Protocol.MOVE_BYTES);
+        out.put(Protocol.MOVE).putInt(session).put((byte) action.ordinal()).putShort((short) x).putShort((short) y);
+    }
+
+    public void sendClose(int session) throws IOException {
+        request(Protocol.CLOSE_BYTES);
+        out.put(Protocol.CLOSE).putInt(session);
+    }
+
+    // The session of the new game, or -1 when the server refused it.
+    public int receiveNewGame() throws IOException {
+        ByteBuffer frame = receive();
+        return frame.get() == Protocol.OK ? frame.getInt() : -1;
+    }
+
+    public MoveResponse receiveMove() throws IOException {
+        return MoveResponse.decode(receive());
+    }
+
+    public byte receiveStatus() throws IOException {
+        return receive().get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void request(int length) throws IOException {
+        if (out.remaining() < Protocol.LENGTH_BYTES + length) flush();
+        out.putInt(length);
+    }
+
+    private void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) channel.write(out);
+        out.clear();
+    }
+
+    // Reads the next response frame; the returned buffer is positioned at its first byte.
+    private ByteBuffer receive() throws IOException {
+        if (out.position() > 0) flush();
+        fill(Protocol.LENGTH_BYTES);
+        int length = in.getInt();
+        fill(length);
+        ByteBuffer frame = in.slice();
+        frame.limit(length);
+        in.position(in.position() + length);
+        return frame;
+    }
+
+    private void fill(int bytes) throws IOException {
+        if (in.remaining() >= bytes) return;
+        if (in.capacity() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(in.capacity() * 2, bytes));
+            larger.put(in);
+            in = larger;
+        } else {
+            in.compact();
+        }
+        while (in.position() < bytes) {
+            if (channel.read(in) < 0) throw new EOFException("The server closed the connection");
+        }
+        in.flip();
+    }
+}
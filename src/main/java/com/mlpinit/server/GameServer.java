@@ -0,0 +1,112 @@
+package com.mlpinit.server;
+
+import com.mlpinit.metrics.EngineMetrics;
+import com.mlpinit.utils.Log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Headless server hosting many games for bots, speaking the Protocol on the loopback interface. One thread
+ * accepts connections and deals them out to a small pool of event loops; each session has its own Board and is
+ * played on the loop of the connection that created it.
+ *
+ * Start with: java com.mlpinit.server.GameServer [port] [event loops]
+ */
+public class GameServer implements Closeable {
+    private static final String TAG = "[GameServer]";
+    public static final int DEFAULT_PORT = 7070;
+
+    private final int requestedPort;
+    private final EventLoop[] eventLoops;
+    private final AtomicInteger sessionIds = new AtomicInteger();
+    private final AtomicInteger sessions = new AtomicInteger();
+    private final LongAdder moves = new LongAdder();
+    private ServerSocketChannel serverChannel;
+    private Thread acceptor;
+
+    public GameServer(int port, int eventLoops) throws IOException {
+        this.requestedPort = port;
+        this.eventLoops = new EventLoop[eventLoops];
+        for (int i = 0; i < eventLoops; i++) this.eventLoops[i] = new EventLoop(this);
+    }
+
+    // Binds and starts serving; returns the port, which is only chosen here when 0 was asked for.
+    public int start() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), requestedPort), 1024);
+        for (int i = 0; i < eventLoops.length; i++) {
+            Thread thread = new Thread(eventLoops[i], "minesweeper-server-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        acceptor = new Thread(this::accept, "minesweeper-server-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        return getPort();
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    public int getSessionCount() {
+        return sessions.get();
+    }
+
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverChannel.close();
+        for (EventLoop eventLoop : eventLoops) eventLoop.stop();
+    }
+
+    int nextSessionId() {
+        sessions.incrementAndGet();
+        return sessionIds.incrementAndGet();
+    }
+
+    void sessionsClosed(int count) {
+        sessions.addAndGet(-count);
+    }
+
+    void moved() {
+        moves.increment();
+    }
+
+    private void accept() {
+        int next = 0;
+        while (serverChannel.isOpen()) {
+            try {
+                SocketChannel channel = serverChannel.accept();
+                eventLoops[next].register(channel);
+                next = (next + 1) % eventLoops.length;
+            } catch (IOException e) {
+                if (serverChannel.isOpen()) Log.error(TAG, "Accept failed: " + e);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int loops = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        EngineMetrics.get().register();
+        GameServer server = new GameServer(port, loops);
+        Log.info(TAG, "Listening on " + server.start() + " with " + loops + " event loops");
+        while (true) {
+            long moves = server.getMoves();
+            Thread.sleep(1000);
+            long perSecond = server.getMoves() - moves;
+            Log.info(TAG, server.getSessionCount() + " sessions, " + perSecond + " moves/s");
+        }
+    }
+}
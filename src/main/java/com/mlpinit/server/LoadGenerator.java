@@ -0,0 +1,160 @@
+package com.mlpinit.server;
+
+import com.mlpinit.metrics.Histogram;
+import com.mlpinit.models.Board;
+import com.mlpinit.models.BoardAction;
+import com.mlpinit.utils.Log;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Plays random games against a GameServer to measure it. Every connection runs on its own thread and holds many
+ * sessions; each round it pipelines one request per session and then reads all responses, so the number of
+ * sessions in flight is connections * sessions. A lost or won game is closed and replaced by a new one.
+ *
+ * Run with: java com.mlpinit.server.LoadGenerator port connections sessions seconds [height width mines]
+ * A port of 0 starts a server in the same JVM.
+ */
+public class LoadGenerator {
+    private static final String TAG = "[LoadGenerator]";
+
+    private final int port;
+    private final int connections;
+    private final int sessionsPerConnection;
+    private final int height;
+    private final int width;
+    private final int nrOfMines;
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder games = new LongAdder();
+    private final LongAdder wins = new LongAdder();
+    private final Histogram roundTrips = new Histogram();
+
+    public LoadGenerator(int port, int connections, int sessionsPerConnection, int height, int width,
+                         int nrOfMines) {
+        this.port = port;
+        this.connections = connections;
+        this.sessionsPerConnection = sessionsPerConnection;
+        this.height = height;
+        this.width = width;
+        this.nrOfMines = nrOfMines;
+    }
+
+    // Plays until the duration is over and returns the number of moves made.
+    public long run(long durationMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        Thread[] threads = new Thread[connections];
+        for (int i = 0; i < connections; i++) {
+            long seed = i;
+            threads[i] = new Thread(() -> play(seed, deadline), "load-generator-" + i);
+            threads[i].start();
+        }
+        for (Thread thread : threads) thread.join();
+        return moves.sum();
+    }
+
+    public long getMoves() {
+        return moves.sum();
+    }
+
+    public long getGames() {
+        return games.sum();
+    }
+
+    public long getWins() {
+        return wins.sum();
+    }
+
+    private void play(long seed, long deadline) {
+        SplittableRandom random = new SplittableRandom(seed);
+        try (GameClient client = new GameClient(port)) {
+            Bot[] bots = new Bot[sessionsPerConnection];
+            for (int i = 0; i < bots.length; i++) client.sendNewGame(height, width, nrOfMines, random.nextLong());
+            for (int i = 0; i < bots.length; i++) bots[i] = new Bot(client.receiveNewGame(), height * width);
+            while (System.nanoTime() < deadline) {
+                long start = System.nanoTime();
+                for (Bot bot : bots) {
+                    if (bot.over) {
+                        client.sendClose(bot.session);
+                        client.sendNewGame(height, width, nrOfMines, random.nextLong());
+                    } else {
+                        int position = bot.nextCell(random);
+                        client.sendMove(bot.session, BoardAction.OPEN, position / width, position % width);
+                    }
+                }
+                for (int i = 0; i < bots.length; i++) {
+                    if (bots[i].over) {
+                        client.receiveStatus();
+                        bots[i] = new Bot(client.receiveNewGame(), height * width);
+                    } else {
+                        bots[i].apply(client.receiveMove());
+                    }
+                }
+                roundTrips.record(System.nanoTime() - start);
+            }
+            for (Bot bot : bots) client.sendClose(bot.session);
+            for (Bot bot : bots) client.receiveStatus();
+        } catch (IOException e) {
+            Log.warn(TAG, "Connection failed: " + e);
+        }
+    }
+
+    // Opens random cells it has not seen opened yet.
+    private class Bot {
+        private final int session;
+        private final boolean[] opened;
+        private int openedCount = 0;
+        private boolean over = false;
+
+        Bot(int session, int cells) {
+            this.session = session;
+            this.opened = new boolean[cells];
+        }
+
+        int nextCell(SplittableRandom random) {
+            int position = random.nextInt(opened.length);
+            while (opened[position]) position = (position + 1) % opened.length;
+            return position;
+        }
+
+        void apply(MoveResponse response) {
+            moves.increment();
+            for (int i = 0; i < response.getOpenedCount(); i++) {
+                if (!opened[response.getOpenedPosition(i)]) openedCount++;
+                opened[response.getOpenedPosition(i)] = true;
+            }
+            if (response.getState() == Board.State.GAME_OVER || openedCount == opened.length) {
+                over = true;
+                games.increment();
+                if (response.isGameWon()) wins.increment();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 4) {
+            System.err.println("Usage: LoadGenerator port connections sessions seconds [height width mines]");
+            return;
+        }
+        int port = Integer.parseInt(args[0]);
+        int connections = Integer.parseInt(args[1]);
+        int sessions = Integer.parseInt(args[2]);
+        int seconds = Integer.parseInt(args[3]);
+        int height = args.length > 6 ? Integer.parseInt(args[4]) : 16;
+        int width = args.length > 6 ? Integer.parseInt(args[5]) : 30;
+        int mines = args.length > 6 ? Integer.parseInt(args[6]) : 99;
+        GameServer server = null;
+        if (port == 0) {
+            server = new GameServer(0, Runtime.getRuntime().availableProcessors());
+            port = server.start();
+        }
+        LoadGenerator generator = new LoadGenerator(port, connections, sessions, height, width, mines);
+        long moves = generator.run(TimeUnit.SECONDS.toMillis(seconds));
+        System.out.println(connections * sessions + " sessions: " + moves / seconds + " moves/s, "
+                + generator.getGames() + " games (" + generator.getWins() + " won)");
+        System.out.println("round trips (ns): " + generator.roundTrips.snapshot());
+        if (server != null) server.close();
+    }
+}
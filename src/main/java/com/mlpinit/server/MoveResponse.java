@@ -0,0 +1,86 @@
+package com.mlpinit.server;
+
+import com.mlpinit.models.Board;
+
+import java.nio.ByteBuffer;
+
+// What a MOVE changed, as decoded by GameClient.
+public class MoveResponse {
+    private final byte status;
+    private final Board.State state;
+    private final byte result;
+    private final int remainingMines;
+    private final int[] openedPositions;
+    private final byte[] openedValues;
+    private final int[] minePositions;
+
+    private MoveResponse(byte status, Board.State state, byte result, int remainingMines, int[] openedPositions,
+                         byte[] openedValues, int[] minePositions) {
+        this.status = status;
+        this.state = state;
+        this.result = result;
+        this.remainingMines = remainingMines;
+        this.openedPositions = openedPositions;
+        this.openedValues = openedValues;
+        this.minePositions = minePositions;
+    }
+
+    static MoveResponse decode(ByteBuffer frame) {
+        byte status = frame.get();
+        if (status != Protocol.OK) return new MoveResponse(status, null, Protocol.PLAYING, 0, new int[0],
+                new byte[0], new int[0]);
+        Board.State state = Board.State.values()[frame.get()];
+        byte result = frame.get();
+        int remainingMines = frame.getInt();
+        int opened = frame.getInt();
+        int[] openedPositions = new int[opened];
+        byte[] openedValues = new byte[opened];
+        for (int i = 0; i < opened; i++) {
+            openedPositions[i] = frame.getInt();
+            openedValues[i] = frame.get();
+        }
+        int[] minePositions = new int[frame.getInt()];
+        for (int i = 0; i < minePositions.length; i++) minePositions[i] = frame.getInt();
+        return new MoveResponse(status, state, result, remainingMines, openedPositions, openedValues, minePositions);
+    }
+
+    public byte getStatus() {
+        return status;
+    }
+
+    public Board.State getState() {
+        return state;
+    }
+
+    public boolean isGameWon() {
+        return result == Protocol.WON;
+    }
+
+    public boolean isGameLost() {
+        return result == Protocol.LOST;
+    }
+
+    public int getRemainingMines() {
+        return remainingMines;
+    }
+
+    public int getOpenedCount() {
+        return openedPositions.length;
+    }
+
+    public int getOpenedPosition(int index) {
+        return openedPositions[index];
+    }
+
+    public int getOpenedValue(int index) {
+        return openedValues[index];
+    }
+
+    public int getMineCount() {
+        return minePositions.length;
+    }
+
+    public int getMinePosition(int index) {
+        return minePositions[index];
+    }
+}
@@ -0,0 +1,45 @@
+package com.mlpinit.server;
+
+import com.mlpinit.models.BoardAction;
+
+/*
+ * Binary protocol between GameServer and its clients. Every message is a frame: a 4 byte big endian length
+ * followed by that many bytes. Requests start with an opcode, responses with a status, and the server answers
+ * the requests of a connection in the order they were sent, so clients can pipeline.
+ *
+ *   NEW_GAME  height u16, width u16, mines u32, seed i64   ->  status, session u32
+ *   MOVE      session u32, action u8, x u16, y u16          ->  status, state u8, result u8, remaining mines i32,
+ *                                                                opened u32 then (position u32, value u8) each,
+ *                                                                mines u32 then position u32 each
+ *   CLOSE     session u32                                   ->  status
+ *
+ * Positions are row * width + column. The action is a BoardAction ordinal and the state a Board.State ordinal.
+ */
+public final class Protocol {
+    public static final byte NEW_GAME = 1;
+    public static final byte MOVE = 2;
+    public static final byte CLOSE = 3;
+
+    public static final byte OK = 0;
+    public static final byte UNKNOWN_SESSION = 1;
+    public static final byte BAD_REQUEST = 2;
+
+    public static final byte PLAYING = 0;
+    public static final byte WON = 1;
+    public static final byte LOST = 2;
+
+    public static final int LENGTH_BYTES = 4;
+    // Requests are tiny, anything longer means the stream is out of sync.
+    public static final int MAX_REQUEST_BYTES = 64;
+    public static final int MAX_CELLS = 1 << 22;
+
+    // Frame lengths of the requests, opcode included.
+    static final int NEW_GAME_BYTES = 17;
+    static final int MOVE_BYTES = 10;
+    static final int CLOSE_BYTES = 5;
+
+    static final BoardAction[] ACTIONS = BoardAction.values();
+
+    private Protocol() {
+    }
+}
@@ -0,0 +1,42 @@
+package com.mlpinit.server;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.BoardRequest;
+import com.mlpinit.models.BoardUpdate;
+import rx.Subscription;
+
+/*
+ * One game hosted by the server. A session belongs to the connection that created it and is only touched by that
+ * connection's event loop, so its board keeps a single writer like it does behind the GameEngine.
+ */
+class Session {
+    private final int id;
+    private final Board board;
+    private final Subscription subscription;
+    private BoardUpdate lastUpdate;
+
+    Session(int id, Board board) {
+        this.id = id;
+        this.board = board;
+        this.subscription = board.boardUpdateObservable.subscribe(update -> lastUpdate = update);
+    }
+
+    int getId() {
+        return id;
+    }
+
+    Board getBoard() {
+        return board;
+    }
+
+    // Executes the request and returns everything it changed.
+    BoardUpdate execute(BoardRequest request) {
+        lastUpdate = null;
+        board.execute(request);
+        return lastUpdate;
+    }
+
+    void close() {
+        subscription.unsubscribe();
+    }
+}
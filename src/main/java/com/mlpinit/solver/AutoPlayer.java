@@ -0,0 +1,82 @@
+package com.mlpinit.solver;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.BoardAction;
+import com.mlpinit.models.BoardRequest;
+import com.mlpinit.models.Coordinate;
+import com.mlpinit.utils.Log;
+import rx.Subscription;
+
+/*
+ * Plays a board through Board.execute using only deductions of the solver, so it never guesses after the
+ * first click. The solver is kept up to date from the board's batched updates, which also picks up moves made
+ * by anyone else on the same board.
+ */
+public class AutoPlayer {
+    private static final String TAG = "[AutoPlayer]";
+
+    private final Board board;
+    private final Solver solver;
+    private final Subscription subscription;
+
+    public AutoPlayer(Board board) {
+        this.board = board;
+        this.solver = new Solver(board);
+        this.solver.setTotalMines(board.getNrOfMines());
+        this.subscription = board.boardUpdateObservable.subscribe(solver::update);
+    }
+
+    /*
+     * Executes the next move: the first click in the middle of the board, marking a known mine or opening a
+     * known safe cell. Returns false when the game is over or nothing more can be deduced.
+     */
+    public boolean step() {
+        if (board.getState() == Board.State.GAME_OVER) return false;
+        if (board.getState() == Board.State.NOT_STARTED) {
+            execute(BoardAction.OPEN, solver.getHeight() / 2 * solver.getWidth() + solver.getWidth() / 2);
+            return true;
+        }
+        while (true) {
+            int mine = solver.nextMineCell();
+            if (mine >= 0) {
+                if (isMarked(mine)) continue;
+                execute(BoardAction.MARK, mine);
+                return true;
+            }
+            int safe = solver.nextSafeCell();
+            if (safe >= 0) {
+                if (isMarked(safe)) execute(BoardAction.MARK, safe);
+                execute(BoardAction.OPEN, safe);
+                return true;
+            }
+            if (!solver.solve()) {
+                Log.debug(TAG, "No more deductions.");
+                return false;
+            }
+        }
+    }
+
+    // Plays until the game is over or the solver is stuck, returning the number of executed requests.
+    public int play() {
+        int moves = 0;
+        while (step()) moves++;
+        return moves;
+    }
+
+    public Solver getSolver() {
+        return solver;
+    }
+
+    public void stop() {
+        subscription.unsubscribe();
+    }
+
+    private boolean isMarked(int position) {
+        return board.isMarked(position / solver.getWidth(), position % solver.getWidth());
+    }
+
+    private void execute(BoardAction action, int position) {
+        Coordinate coordinate = new Coordinate(position / solver.getWidth(), position % solver.getWidth());
+        board.execute(new BoardRequest(coordinate, action));
+    }
+}
@@ -0,0 +1,128 @@
+package com.mlpinit.solver;
+
+/*
+ * Backtracking over every mine assignment of a group of unknown cells that satisfies the numbers around them.
+ * Solutions are counted by their number of mines, which is what is needed to weigh them against the mines
+ * left for the rest of the board. Variables are assigned in the order they were discovered, so neighbouring
+ * cells are decided close together and violated numbers are noticed early.
+ */
+class Enumeration {
+    private static final int DEADLINE_CHECK_INTERVAL = 1 << 12;
+
+    private final int[] remaining;
+    private final int[] unassigned;
+    private final int[][] constraintsOf;
+    private final boolean[] assignment;
+    // solutions with k mines, and how many of those have a mine on each variable
+    final long[] solutionsByMines;
+    final long[][] mineSolutionsByMines;
+    private long deadlineNanos;
+    private boolean limited;
+    private boolean timedOut = false;
+    private long nodes = 0;
+    private int mines = 0;
+
+    Enumeration(int variables, int[][] variablesOfConstraint, int[] remaining) {
+        this.remaining = remaining.clone();
+        this.unassigned = new int[variablesOfConstraint.length];
+        this.constraintsOf = invert(variables, variablesOfConstraint);
+        this.assignment = new boolean[variables];
+        this.solutionsByMines = new long[variables + 1];
+        this.mineSolutionsByMines = new long[variables][variables + 1];
+        for (int c = 0; c < variablesOfConstraint.length; c++) unassigned[c] = variablesOfConstraint[c].length;
+    }
+
+    // Enumeration of the unknown cells of a group found by the solver, using its current knowledge.
+    static Enumeration of(Solver solver, int[] constraintCells, int[] variableCells) {
+        int[] scratch = new int[8];
+        int[][] variablesOfConstraint = new int[constraintCells.length][];
+        int[] remaining = new int[constraintCells.length];
+        for (int c = 0; c < constraintCells.length; c++) {
+            int count = solver.collectUnknown(constraintCells[c], scratch);
+            remaining[c] = solver.remainingMines(constraintCells[c]);
+            variablesOfConstraint[c] = new int[count];
+            for (int i = 0; i < count; i++) variablesOfConstraint[c][i] = solver.componentIndex[scratch[i]];
+        }
+        return new Enumeration(variableCells.length, variablesOfConstraint, remaining);
+    }
+
+    // Maps every variable to the constraints it appears in.
+    static int[][] invert(int variables, int[][] variablesOfConstraint) {
+        int[] degree = new int[variables];
+        for (int[] constrained : variablesOfConstraint) for (int v : constrained) degree[v]++;
+        int[][] constraintsOf = new int[variables][];
+        for (int v = 0; v < variables; v++) constraintsOf[v] = new int[degree[v]];
+        int[] filled = new int[variables];
+        for (int c = 0; c < variablesOfConstraint.length; c++) {
+            for (int v : variablesOfConstraint[c]) constraintsOf[v][filled[v]++] = c;
+        }
+        return constraintsOf;
+    }
+
+    void run() {
+        limited = false;
+        search(0);
+    }
+
+    // Returns false when the deadline (System.nanoTime() based) passed before all solutions were counted.
+    boolean run(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+        limited = true;
+        search(0);
+        return !timedOut;
+    }
+
+    long getSolutions() {
+        long solutions = 0;
+        for (long count : solutionsByMines) solutions += count;
+        return solutions;
+    }
+
+    long getMineSolutions(int variable) {
+        long solutions = 0;
+        for (long count : mineSolutionsByMines[variable]) solutions += count;
+        return solutions;
+    }
+
+    private void search(int variable) {
+        if (timedOut) return;
+        if (limited && ++nodes % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() - deadlineNanos > 0) {
+            timedOut = true;
+            return;
+        }
+        if (variable == constraintsOf.length) {
+            solutionsByMines[mines]++;
+            for (int v = 0; v < assignment.length; v++) if (assignment[v]) mineSolutionsByMines[v][mines]++;
+            return;
+        }
+        for (int choice = 0; choice < 2; choice++) {
+            boolean mine = choice == 1;
+            if (assign(variable, mine)) {
+                assignment[variable] = mine;
+                if (mine) mines++;
+                search(variable + 1);
+                if (mine) mines--;
+            }
+            unassign(variable, mine);
+        }
+        assignment[variable] = false;
+    }
+
+    // Applies the choice to the numbers around the variable, returning false when one of them is violated.
+    private boolean assign(int variable, boolean mine) {
+        boolean consistent = true;
+        for (int c : constraintsOf[variable]) {
+            unassigned[c]--;
+            if (mine) remaining[c]--;
+            if (remaining[c] < 0 || remaining[c] > unassigned[c]) consistent = false;
+        }
+        return consistent;
+    }
+
+    private void unassign(int variable, boolean mine) {
+        for (int c : constraintsOf[variable]) {
+            unassigned[c]++;
+            if (mine) remaining[c]++;
+        }
+    }
+}
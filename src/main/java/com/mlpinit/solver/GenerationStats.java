@@ -0,0 +1,44 @@
+package com.mlpinit.solver;
+
+// Cost of generating one board without guesses.
+public class GenerationStats {
+    private final long generationNanos;
+    private final int candidates;
+    private final int repairs;
+    private final boolean noGuess;
+
+    GenerationStats(long generationNanos, int candidates, int repairs, boolean noGuess) {
+        this.generationNanos = generationNanos;
+        this.candidates = candidates;
+        this.repairs = repairs;
+        this.noGuess = noGuess;
+    }
+
+    public long getGenerationNanos() {
+        return generationNanos;
+    }
+
+    public double getGenerationMillis() {
+        return generationNanos / 1_000_000.0;
+    }
+
+    // Mine fields drawn, including the one that was kept.
+    public int getCandidates() {
+        return candidates;
+    }
+
+    // Mine relocations applied to the field that was kept.
+    public int getRepairs() {
+        return repairs;
+    }
+
+    // False when no field solvable without guessing was found and the last candidate was used instead.
+    public boolean isNoGuess() {
+        return noGuess;
+    }
+
+    public String toString() {
+        return String.format("%.2f ms, candidates: %d, repairs: %d, no guess: %b", getGenerationMillis(),
+                candidates, repairs, noGuess);
+    }
+}
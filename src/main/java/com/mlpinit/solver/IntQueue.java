@@ -0,0 +1,52 @@
+package com.mlpinit.solver;
+
+import java.util.Arrays;
+
+// Growable FIFO of ints backed by a ring buffer.
+class IntQueue {
+    private int[] values = new int[64];
+    private int head = 0;
+    private int size = 0;
+
+    void add(int value) {
+        if (size == values.length) {
+            int[] grown = new int[values.length * 2];
+            for (int i = 0; i < size; i++) grown[i] = values[(head + i) & (values.length - 1)];
+            values = grown;
+            head = 0;
+        }
+        values[(head + size) & (values.length - 1)] = value;
+        size++;
+    }
+
+    int poll() {
+        int value = values[head];
+        head = (head + 1) & (values.length - 1);
+        size--;
+        return value;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    int[] toArray() {
+        int[] copy = new int[size];
+        for (int i = 0; i < size; i++) copy[i] = values[(head + i) & (values.length - 1)];
+        return copy;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
@@ -0,0 +1,101 @@
+package com.mlpinit.solver;
+
+import java.util.Arrays;
+
+/*
+ * Mine probabilities of every cell of a board at one point in the game. Cells next to opened numbers have
+ * their own probability, all other closed cells share the interior probability, and cells the solver
+ * already decided are 0 or 1.
+ */
+public class MineProbabilities {
+    private final int width;
+    private final byte[] knowledge;
+    // frontier position in the high half and the probability's float bits in the low half, sorted by position
+    private final long[] frontier;
+    private final double interiorProbability;
+    private final boolean exact;
+
+    MineProbabilities(int width, byte[] knowledge, long[] frontier, double interiorProbability, boolean exact) {
+        this.width = width;
+        this.knowledge = knowledge;
+        this.frontier = frontier;
+        this.interiorProbability = interiorProbability;
+        this.exact = exact;
+        Arrays.sort(this.frontier);
+    }
+
+    static long frontierEntry(int position, double probability) {
+        return ((long) position << 32) | (Float.floatToIntBits((float) probability) & 0xFFFFFFFFL);
+    }
+
+    public double getMineProbability(int x, int y) {
+        return getMineProbability(x * width + y);
+    }
+
+    public double getMineProbability(int position) {
+        if (knowledge[position] == Solver.MINE) return 1;
+        if (knowledge[position] != Solver.UNKNOWN) return 0;
+        int index = frontierIndex(position);
+        return index < 0 ? interiorProbability : Float.intBitsToFloat((int) frontier[index]);
+    }
+
+    // Probability shared by closed cells that do not touch an opened number.
+    public double getInteriorProbability() {
+        return interiorProbability;
+    }
+
+    public boolean isFrontier(int position) {
+        return frontierIndex(position) >= 0;
+    }
+
+    public int getFrontierSize() {
+        return frontier.length;
+    }
+
+    // False when some part of the frontier was estimated by sampling rather than enumerated.
+    public boolean isExact() {
+        return exact;
+    }
+
+    /*
+     * Closed cell least likely to hold a mine, preferring known safe cells and then frontier cells, which also
+     * tell more once opened. Returns -1 when no closed cell is left.
+     */
+    public int getSafestCell() {
+        for (int position = 0; position < knowledge.length; position++) {
+            if (knowledge[position] == Solver.SAFE) return position;
+        }
+        int safest = -1;
+        double lowest = 2;
+        for (long entry : frontier) {
+            double probability = Float.intBitsToFloat((int) entry);
+            if (probability < lowest) {
+                lowest = probability;
+                safest = (int) (entry >>> 32);
+            }
+        }
+        if (interiorProbability < lowest) {
+            for (int position = 0; position < knowledge.length; position++) {
+                if (knowledge[position] == Solver.UNKNOWN && frontierIndex(position) < 0) return position;
+            }
+        }
+        return safest;
+    }
+
+    private int frontierIndex(int position) {
+        int low = 0;
+        int high = frontier.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int middlePosition = (int) (frontier[middle] >>> 32);
+            if (middlePosition < position) {
+                low = middle + 1;
+            } else if (middlePosition > position) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+}
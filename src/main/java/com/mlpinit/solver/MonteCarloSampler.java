@@ -0,0 +1,93 @@
+package com.mlpinit.solver;
+
+import java.util.SplittableRandom;
+
+/*
+ * Estimates the solution counts of a group that is too large to enumerate. Every sample walks one random path
+ * down the search tree of Enumeration, choosing uniformly between the values that keep all numbers
+ * satisfiable, and weighs the solution it reaches by the product of the number of choices on the way. The
+ * average weight is an unbiased estimate of the number of solutions (Knuth's estimator for backtracking
+ * trees), and the same holds when only solutions with k mines, or with a mine on some cell, are counted.
+ */
+class MonteCarloSampler {
+    static final int MIN_SAMPLES = 64;
+    static final int MAX_SAMPLES = 1 << 16;
+
+    private final int[] initialRemaining;
+    private final int[] initialUnassigned;
+    private final int[][] constraintsOf;
+    private final int[] remaining;
+    private final int[] unassigned;
+    private final boolean[] assignment;
+    private final SplittableRandom random;
+    final double[] solutionsByMines;
+    final double[][] mineSolutionsByMines;
+    private int samples = 0;
+
+    MonteCarloSampler(int variables, int[][] variablesOfConstraint, int[] remaining, long seed) {
+        this.initialRemaining = remaining.clone();
+        this.initialUnassigned = new int[variablesOfConstraint.length];
+        for (int c = 0; c < variablesOfConstraint.length; c++) {
+            initialUnassigned[c] = variablesOfConstraint[c].length;
+        }
+        this.constraintsOf = Enumeration.invert(variables, variablesOfConstraint);
+        this.remaining = new int[remaining.length];
+        this.unassigned = new int[remaining.length];
+        this.assignment = new boolean[variables];
+        this.random = new SplittableRandom(seed);
+        this.solutionsByMines = new double[variables + 1];
+        this.mineSolutionsByMines = new double[variables][variables + 1];
+    }
+
+    // Samples until the deadline passed and at least MIN_SAMPLES were taken, or MAX_SAMPLES were taken.
+    void run(long deadlineNanos) {
+        while (samples < MAX_SAMPLES && (samples < MIN_SAMPLES || System.nanoTime() - deadlineNanos < 0)) {
+            sample();
+        }
+        // turn the sums into averages
+        for (int k = 0; k < solutionsByMines.length; k++) {
+            solutionsByMines[k] /= samples;
+            for (double[] mineSolutions : mineSolutionsByMines) mineSolutions[k] /= samples;
+        }
+    }
+
+    int getSamples() {
+        return samples;
+    }
+
+    private void sample() {
+        samples++;
+        System.arraycopy(initialRemaining, 0, remaining, 0, remaining.length);
+        System.arraycopy(initialUnassigned, 0, unassigned, 0, unassigned.length);
+        double weight = 1;
+        int mines = 0;
+        for (int variable = 0; variable < constraintsOf.length; variable++) {
+            boolean safeAllowed = allows(variable, false);
+            boolean mineAllowed = allows(variable, true);
+            if (!safeAllowed && !mineAllowed) return;
+            boolean mine;
+            if (safeAllowed && mineAllowed) {
+                weight *= 2;
+                mine = random.nextBoolean();
+            } else {
+                mine = mineAllowed;
+            }
+            assignment[variable] = mine;
+            if (mine) mines++;
+            for (int c : constraintsOf[variable]) {
+                unassigned[c]--;
+                if (mine) remaining[c]--;
+            }
+        }
+        solutionsByMines[mines] += weight;
+        for (int v = 0; v < assignment.length; v++) if (assignment[v]) mineSolutionsByMines[v][mines] += weight;
+    }
+
+    private boolean allows(int variable, boolean mine) {
+        for (int c : constraintsOf[variable]) {
+            int left = remaining[c] - (mine ? 1 : 0);
+            if (left < 0 || left > unassigned[c] - 1) return false;
+        }
+        return true;
+    }
+}
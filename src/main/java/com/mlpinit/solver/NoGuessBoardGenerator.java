@@ -0,0 +1,250 @@
+package com.mlpinit.solver;
+
+import com.mlpinit.models.BoardGenerator;
+import com.mlpinit.models.CellGrid;
+import com.mlpinit.models.MineField;
+import com.mlpinit.utils.Log;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Generates boards that can be solved from the first click without guessing. The first click and its
+ * neighbours never hold a mine, so the game always starts with a cascade.
+ *
+ * Every candidate mine field is played by the solver. When the solver gets stuck, a mine next to the opened
+ * area is moved to a closed cell away from it and the candidate is played again, which is much cheaper than
+ * drawing a new field. Candidates are tried in batches on the common ForkJoinPool, and the first solvable
+ * candidate in order is kept, so the board only depends on the seed and not on the number of cores.
+ */
+public class NoGuessBoardGenerator extends BoardGenerator {
+    private static final String TAG = "[NoGuessBoardGenerator]";
+    public static final int MAX_CANDIDATES = 1024;
+    public static final int MAX_REPAIRS = 64;
+
+    private final boolean parallel;
+    private volatile GenerationStats lastStats;
+
+    public NoGuessBoardGenerator() {
+        this(true);
+    }
+
+    public NoGuessBoardGenerator(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    @Override
+    public void generate(CellGrid grid, int nrOfMines, long seed, int firstClickPosition) {
+        long startNanos = System.nanoTime();
+        int height = grid.getHeight();
+        int width = grid.getWidth();
+        int[] allowed = allowedPositions(height, width, nrOfMines, firstClickPosition);
+        if (nrOfMines < 0 || nrOfMines > allowed.length) {
+            throw new IllegalArgumentException("Can not place " + nrOfMines + " mines on " + allowed.length +
+                    " cells.");
+        }
+        int batchSize = parallel ? Math.max(1, ForkJoinPool.getCommonPoolParallelism()) : 1;
+        Candidate kept = null;
+        int candidates = 0;
+        for (int first = 0; first < MAX_CANDIDATES && (kept == null || !kept.solved); first += batchSize) {
+            Candidate[] batch = new Candidate[Math.min(batchSize, MAX_CANDIDATES - first)];
+            for (int i = 0; i < batch.length; i++) {
+                batch[i] = new Candidate(height, width, nrOfMines, firstClickPosition, allowed,
+                        candidateSeed(seed, first + i));
+            }
+            if (batch.length > 1) {
+                ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        ForkJoinTask.invokeAll(batch);
+                    }
+                });
+            } else {
+                batch[0].invoke();
+            }
+            for (int i = 0; i < batch.length; i++) {
+                kept = batch[i];
+                candidates = first + i + 1;
+                if (kept.solved) break;
+            }
+        }
+        if (!kept.solved) Log.warn(TAG, "No board without guesses found after " + candidates + " candidates.");
+        kept.mineField.writeCounts(grid, 0, height);
+        lastStats = new GenerationStats(System.nanoTime() - startNanos, candidates, kept.repairs, kept.solved);
+        Log.debug(TAG, () -> "Generated board: " + lastStats + ".");
+    }
+
+    // Statistics of the last generated board, or null before the first one.
+    public GenerationStats getLastStats() {
+        return lastStats;
+    }
+
+    // Every cell except the first click and its neighbours, or only except the first click on crowded boards.
+    static int[] allowedPositions(int height, int width, int nrOfMines, int firstClickPosition) {
+        int clickX = firstClickPosition / width;
+        int clickY = firstClickPosition % width;
+        int[] allowed = new int[height * width];
+        int count = 0;
+        for (int x = 0; x < height; x++) {
+            for (int y = 0; y < width; y++) {
+                if (Math.abs(x - clickX) > 1 || Math.abs(y - clickY) > 1) allowed[count++] = x * width + y;
+            }
+        }
+        if (count < nrOfMines) {
+            count = 0;
+            for (int position = 0; position < height * width; position++) {
+                if (position != firstClickPosition) allowed[count++] = position;
+            }
+        }
+        return Arrays.copyOf(allowed, count);
+    }
+
+    private static long candidateSeed(long seed, int candidate) {
+        return new SplittableRandom(seed + candidate * 0x9E3779B97F4A7C15L).nextLong();
+    }
+
+    private static class Candidate extends RecursiveAction {
+        private final int height;
+        private final int width;
+        private final int nrOfMines;
+        private final int firstClickPosition;
+        private final int[] allowed;
+        private final long seed;
+        private MineField mineField;
+        private CellGrid grid;
+        private Solver solver;
+        private final IntQueue pending = new IntQueue();
+        private int opened;
+        private boolean solved = false;
+        private int repairs = 0;
+
+        Candidate(int height, int width, int nrOfMines, int firstClickPosition, int[] allowed, long seed) {
+            this.height = height;
+            this.width = width;
+            this.nrOfMines = nrOfMines;
+            this.firstClickPosition = firstClickPosition;
+            this.allowed = allowed;
+            this.seed = seed;
+        }
+
+        @Override
+        protected void compute() {
+            SplittableRandom random = new SplittableRandom(seed);
+            placeMines(random);
+            grid = new CellGrid(height, width);
+            mineField.writeCounts(grid, 0, height);
+            while (true) {
+                if (play()) {
+                    solved = true;
+                    return;
+                }
+                if (repairs == MAX_REPAIRS || !relocateMine(random)) return;
+                repairs++;
+            }
+        }
+
+        // Partial Fisher-Yates shuffle of the allowed positions.
+        private void placeMines(SplittableRandom random) {
+            mineField = new MineField(height, width);
+            int[] candidates = allowed.clone();
+            for (int i = 0; i < nrOfMines; i++) {
+                int j = i + random.nextInt(candidates.length - i);
+                int position = candidates[j];
+                candidates[j] = candidates[i];
+                candidates[i] = position;
+                mineField.setMine(position);
+            }
+        }
+
+        // Plays the field with the solver from the first click, returning true when every safe cell was opened.
+        private boolean play() {
+            solver = new Solver(height, width);
+            solver.setTotalMines(nrOfMines);
+            opened = 0;
+            open(firstClickPosition);
+            int target = height * width - nrOfMines;
+            while (true) {
+                int safe;
+                while ((safe = solver.nextSafeCell()) >= 0) open(safe);
+                if (opened == target) return true;
+                if (!solver.solve()) return false;
+            }
+        }
+
+        private void open(int start) {
+            pending.add(start);
+            while (!pending.isEmpty()) {
+                int position = pending.poll();
+                if (solver.knowledge[position] == Solver.OPENED) continue;
+                int value = grid.getValue(position);
+                solver.opened(position, value);
+                opened++;
+                if (value != 0) continue;
+                int x = position / width;
+                int y = position % width;
+                for (int direction = 0; direction < Solver.NEIGHBOUR_ROW_OFFSETS.length; direction++) {
+                    int neighbourX = x + Solver.NEIGHBOUR_ROW_OFFSETS[direction];
+                    int neighbourY = y + Solver.NEIGHBOUR_COLUMN_OFFSETS[direction];
+                    if (grid.contains(neighbourX, neighbourY) &&
+                            solver.knowledge[neighbourX * width + neighbourY] != Solver.OPENED) {
+                        pending.add(neighbourX * width + neighbourY);
+                    }
+                }
+            }
+        }
+
+        /*
+         * Moves a random undecided mine next to the opened area to a random closed cell that touches no opened
+         * cell. Only the numbers around the old position change, which is where the solver was stuck.
+         */
+        private boolean relocateMine(SplittableRandom random) {
+            IntQueue frontierMines = new IntQueue();
+            IntQueue targets = new IntQueue();
+            for (int position = 0; position < height * width; position++) {
+                if (solver.knowledge[position] != Solver.UNKNOWN) continue;
+                boolean frontier = touchesOpened(position);
+                if (frontier && mineField.isMine(position)) {
+                    frontierMines.add(position);
+                } else if (!frontier && !mineField.isMine(position) && !isNextTo(position, firstClickPosition)) {
+                    targets.add(position);
+                }
+            }
+            if (frontierMines.isEmpty() || targets.isEmpty()) return false;
+            int[] mines = frontierMines.toArray();
+            int[] free = targets.toArray();
+            int from = mines[random.nextInt(mines.length)];
+            int to = free[random.nextInt(free.length)];
+            mineField.clearMine(from);
+            mineField.setMine(to);
+            rewriteCounts(from);
+            rewriteCounts(to);
+            return true;
+        }
+
+        private void rewriteCounts(int position) {
+            int x = position / width;
+            mineField.writeCounts(grid, Math.max(0, x - 1), Math.min(height, x + 2));
+        }
+
+        private boolean touchesOpened(int position) {
+            int x = position / width;
+            int y = position % width;
+            for (int direction = 0; direction < Solver.NEIGHBOUR_ROW_OFFSETS.length; direction++) {
+                int neighbourX = x + Solver.NEIGHBOUR_ROW_OFFSETS[direction];
+                int neighbourY = y + Solver.NEIGHBOUR_COLUMN_OFFSETS[direction];
+                if (grid.contains(neighbourX, neighbourY) &&
+                        solver.knowledge[neighbourX * width + neighbourY] == Solver.OPENED) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isNextTo(int position, int other) {
+            return Math.abs(position / width - other / width) <= 1 && Math.abs(position % width - other % width) <= 1;
+        }
+    }
+}
@@ -0,0 +1,460 @@
+package com.mlpinit.solver;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.BoardUpdate;
+import com.mlpinit.utils.Log;
+import rx.Subscription;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Computes the mine probability of every closed cell from what is visible on a board.
+ *
+ * The solver first removes everything that can be decided for sure. The remaining frontier, closed cells
+ * next to opened numbers, is split into components that share no number, and the solutions of every
+ * component are counted by number of mines. Components are independent except for the total number of mines,
+ * so a configuration of the whole board is weighed by the product of the component counts and by the number
+ * of ways to place the mines that are left on the interior cells, C(interior, mines left). All of this is
+ * done with exact integers.
+ *
+ * Components are counted on separate fork join tasks and cached by their cells and numbers, so a move only
+ * recounts the components it touched. Counting stops at the time budget; components that were too large or
+ * not finished in time are estimated by sampling instead.
+ */
+public class ProbabilityEngine {
+    private static final String TAG = "[ProbabilityEngine]";
+    public static final int MAX_EXACT_CELLS = 48;
+    public static final long DEFAULT_BUDGET_MILLIS = 50;
+    private static final int MAX_CACHED_COMPONENTS = 1024;
+    private static final MathContext PRECISION = MathContext.DECIMAL64;
+
+    private final Solver solver;
+    private final int totalMines;
+    private final long budgetNanos;
+    private final Subscription subscription;
+    // opened numbers that may still border unknown cells
+    private int[] constraints = new int[64];
+    private int nrOfConstraints = 0;
+    private final int[] visited;
+    private final int[] variableIndex;
+    private int stamp = 0;
+    private final int[] scratch = new int[8];
+    private final Map<ComponentKey, ComponentCounts> cache;
+    private long cacheHits = 0;
+    private long cacheMisses = 0;
+
+    public ProbabilityEngine(Board board) {
+        this(board, DEFAULT_BUDGET_MILLIS);
+    }
+
+    public ProbabilityEngine(Board board, long budgetMillis) {
+        this.solver = new Solver(board);
+        this.totalMines = board.getNrOfMines();
+        this.budgetNanos = budgetMillis * 1_000_000L;
+        this.visited = new int[board.getHeight() * board.getWidth()];
+        this.variableIndex = new int[board.getHeight() * board.getWidth()];
+        this.cache = new LinkedHashMap<ComponentKey, ComponentCounts>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ComponentKey, ComponentCounts> eldest) {
+                return size() > MAX_CACHED_COMPONENTS;
+            }
+        };
+        solver.setTotalMines(totalMines);
+        for (int position = 0; position < visited.length; position++) {
+            if (solver.knowledge[position] == Solver.OPENED && solver.values[position] > 0) addConstraint(position);
+        }
+        this.subscription = board.boardUpdateObservable.subscribe(this::update);
+    }
+
+    public void update(BoardUpdate update) {
+        solver.update(update);
+        // cached components stay valid, they only depend on the cells and numbers in them
+        if (update.isReset()) nrOfConstraints = 0;
+        for (int i = 0; i < update.getOpenedCount(); i++) {
+            if (update.getOpenedValue(i) > 0) addConstraint(update.getOpenedPosition(i));
+        }
+    }
+
+    public MineProbabilities compute() {
+        long deadlineNanos = System.nanoTime() + budgetNanos;
+        while (solver.solve()) {
+            // keep applying the certain rules until nothing follows
+        }
+        List<Component> components = collectComponents();
+        ComponentCounts[] counts = new ComponentCounts[components.size()];
+        List<ComponentTask> tasks = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = cache.get(components.get(i).key);
+            if (counts[i] != null) {
+                cacheHits++;
+            } else {
+                cacheMisses++;
+                tasks.add(new ComponentTask(components.get(i), deadlineNanos));
+            }
+        }
+        if (tasks.size() > 1) {
+            ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(tasks);
+                }
+            });
+        } else if (tasks.size() == 1) {
+            tasks.get(0).invoke();
+        }
+        // estimates are not cached, a later call with more time (or a smaller component) may count exactly
+        for (ComponentTask task : tasks) {
+            if (task.counts != null && task.counts.exact) cache.put(task.component.key, task.counts);
+        }
+        int next = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == null) counts[i] = tasks.get(next++).counts;
+        }
+        return combine(components, counts);
+    }
+
+    public long getCacheHits() {
+        return cacheHits;
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses;
+    }
+
+    public Solver getSolver() {
+        return solver;
+    }
+
+    public void stop() {
+        subscription.unsubscribe();
+    }
+
+    private void addConstraint(int position) {
+        if (nrOfConstraints == constraints.length) constraints = Arrays.copyOf(constraints, nrOfConstraints * 2);
+        constraints[nrOfConstraints++] = position;
+    }
+
+    // Splits the frontier into components, dropping numbers that have no unknown neighbours left for good.
+    private List<Component> collectComponents() {
+        stamp++;
+        int kept = 0;
+        for (int i = 0; i < nrOfConstraints; i++) {
+            if (solver.collectUnknown(constraints[i], scratch) > 0) constraints[kept++] = constraints[i];
+        }
+        nrOfConstraints = kept;
+        List<Component> components = new ArrayList<>();
+        IntQueue componentConstraints = new IntQueue();
+        IntQueue componentVariables = new IntQueue();
+        IntQueue pending = new IntQueue();
+        for (int i = 0; i < nrOfConstraints; i++) {
+            int start = constraints[i];
+            if (visited[start] == stamp) continue;
+            componentConstraints.clear();
+            componentVariables.clear();
+            visited[start] = stamp;
+            pending.add(start);
+            while (!pending.isEmpty()) {
+                int constraint = pending.poll();
+                componentConstraints.add(constraint);
+                int unknowns = solver.collectUnknown(constraint, scratch);
+                for (int u = 0; u < unknowns; u++) {
+                    int variable = scratch[u];
+                    if (visited[variable] == stamp) continue;
+                    visited[variable] = stamp;
+                    variableIndex[variable] = componentVariables.size();
+                    componentVariables.add(variable);
+                    addOpenedNeighbours(variable, pending);
+                }
+            }
+            components.add(buildComponent(componentConstraints.toArray(), componentVariables.toArray()));
+        }
+        return components;
+    }
+
+    private void addOpenedNeighbours(int variable, IntQueue pending) {
+        int x = variable / solver.width;
+        int y = variable % solver.width;
+        for (int direction = 0; direction < Solver.NEIGHBOUR_ROW_OFFSETS.length; direction++) {
+            int neighbourX = x + Solver.NEIGHBOUR_ROW_OFFSETS[direction];
+            int neighbourY = y + Solver.NEIGHBOUR_COLUMN_OFFSETS[direction];
+            if (!solver.contains(neighbourX, neighbourY)) continue;
+            int neighbour = neighbourX * solver.width + neighbourY;
+            if (solver.knowledge[neighbour] != Solver.OPENED || visited[neighbour] == stamp) continue;
+            visited[neighbour] = stamp;
+            pending.add(neighbour);
+        }
+    }
+
+    private Component buildComponent(int[] constraintCells, int[] variableCells) {
+        int[][] variablesOfConstraint = new int[constraintCells.length][];
+        int[] remaining = new int[constraintCells.length];
+        int keyLength = 2 + variableCells.length;
+        for (int c = 0; c < constraintCells.length; c++) {
+            int unknowns = solver.collectUnknown(constraintCells[c], scratch);
+            variablesOfConstraint[c] = new int[unknowns];
+            for (int u = 0; u < unknowns; u++) variablesOfConstraint[c][u] = variableIndex[scratch[u]];
+            remaining[c] = solver.remainingMines(constraintCells[c]);
+            keyLength += 2 + unknowns;
+        }
+        // the cells and the numbers on them identify the component, wherever it was found from
+        int[] key = new int[keyLength];
+        int k = 0;
+        key[k++] = variableCells.length;
+        for (int variable : variableCells) key[k++] = variable;
+        key[k++] = constraintCells.length;
+        for (int c = 0; c < constraintCells.length; c++) {
+            key[k++] = remaining[c];
+            key[k++] = variablesOfConstraint[c].length;
+            for (int v : variablesOfConstraint[c]) key[k++] = v;
+        }
+        return new Component(variableCells, variablesOfConstraint, remaining, new ComponentKey(key));
+    }
+
+    /*
+     * Combines the component counts with the interior. With T the product of the component polynomials (T[K]
+     * configurations of the frontier with K mines) and w(K) proportional to C(interior, mines left - K), the
+     * probability of a frontier cell is the weight of the configurations with a mine on it over the total
+     * weight. The polynomial of all other components is T divided by the component's own polynomial.
+     */
+    private MineProbabilities combine(List<Component> components, ComponentCounts[] counts) {
+        boolean exact = true;
+        int interior = solver.getUnknownCells();
+        int minesLeft = totalMines - solver.getKnownMines();
+        BigInteger[] total = {BigInteger.ONE};
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == null) {
+                // no configuration was found in time, treat its cells like the interior
+                exact = false;
+                continue;
+            }
+            exact &= counts[i].exact;
+            interior -= components.get(i).variables.length;
+            total = multiply(total, counts[i].solutionsByMines);
+        }
+        BigInteger[] weights = interiorWeights(interior, minesLeft, total.length);
+        BigInteger totalWeight = BigInteger.ZERO;
+        BigInteger interiorMines = BigInteger.ZERO;
+        for (int mines = 0; mines < total.length; mines++) {
+            BigInteger weight = total[mines].multiply(weights[mines]);
+            totalWeight = totalWeight.add(weight);
+            interiorMines = interiorMines.add(weight.multiply(BigInteger.valueOf(Math.max(0, minesLeft - mines))));
+        }
+        byte[] knowledge = solver.knowledge.clone();
+        if (totalWeight.signum() == 0) {
+            Log.warn(TAG, "The visible board has no consistent configuration.");
+            double uniform = solver.getUnknownCells() == 0 ? 0 : (double) minesLeft / solver.getUnknownCells();
+            return new MineProbabilities(solver.width, knowledge, new long[0], uniform, false);
+        }
+        double interiorProbability = interior == 0 ? 0 :
+                divide(interiorMines, totalWeight.multiply(BigInteger.valueOf(interior)));
+
+        List<long[]> entries = new ArrayList<>();
+        int frontierSize = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == null) continue;
+            BigInteger[] others = divide(total, counts[i].solutionsByMines);
+            // weight of every mine count of this component combined with everything else
+            BigInteger[] combined = new BigInteger[counts[i].solutionsByMines.length];
+            for (int k = 0; k < combined.length; k++) {
+                BigInteger sum = BigInteger.ZERO;
+                for (int j = 0; j < others.length && k + j < weights.length; j++) {
+                    if (others[j].signum() != 0) sum = sum.add(others[j].multiply(weights[k + j]));
+                }
+                combined[k] = sum;
+            }
+            int[] variables = components.get(i).variables;
+            long[] componentEntries = new long[variables.length];
+            for (int v = 0; v < variables.length; v++) {
+                BigInteger mineWeight = BigInteger.ZERO;
+                BigInteger[] mineSolutions = counts[i].mineSolutionsByMines[v];
+                for (int k = 0; k < mineSolutions.length; k++) {
+                    if (mineSolutions[k].signum() != 0) mineWeight = mineWeight.add(mineSolutions[k].multiply(combined[k]));
+                }
+                componentEntries[v] = MineProbabilities.frontierEntry(variables[v], divide(mineWeight, totalWeight));
+            }
+            entries.add(componentEntries);
+            frontierSize += variables.length;
+        }
+        long[] frontier = new long[frontierSize];
+        int filled = 0;
+        for (long[] componentEntries : entries) {
+            System.arraycopy(componentEntries, 0, frontier, filled, componentEntries.length);
+            filled += componentEntries.length;
+        }
+        return new MineProbabilities(solver.width, knowledge, frontier, interiorProbability, exact);
+    }
+
+    /*
+     * weights[K] proportional to C(interior, minesLeft - K). Only ratios matter, so the binomials are divided by
+     * C(interior, lowest) and multiplied by the common denominator, which keeps them small exact integers.
+     */
+    static BigInteger[] interiorWeights(int interior, int minesLeft, int length) {
+        BigInteger[] weights = new BigInteger[length];
+        Arrays.fill(weights, BigInteger.ZERO);
+        int lowest = Math.max(0, minesLeft - (length - 1));
+        int highest = Math.min(interior, minesLeft);
+        if (lowest > highest) return weights;
+        int steps = highest - lowest;
+        // numerator[d] = product of (interior - lowest - t) for t < d, denominator[d] = product of (lowest + t) for d < t <= steps
+        BigInteger[] denominators = new BigInteger[steps + 1];
+        denominators[steps] = BigInteger.ONE;
+        for (int d = steps - 1; d >= 0; d--) {
+            denominators[d] = denominators[d + 1].multiply(BigInteger.valueOf(lowest + d + 1));
+        }
+        BigInteger numerator = BigInteger.ONE;
+        for (int d = 0; d <= steps; d++) {
+            if (d > 0) numerator = numerator.multiply(BigInteger.valueOf(interior - lowest - d + 1));
+            weights[minesLeft - lowest - d] = numerator.multiply(denominators[d]);
+        }
+        return weights;
+    }
+
+    static BigInteger[] multiply(BigInteger[] left, BigInteger[] right) {
+        BigInteger[] product = new BigInteger[left.length + right.length - 1];
+        Arrays.fill(product, BigInteger.ZERO);
+        for (int i = 0; i < left.length; i++) {
+            if (left[i].signum() == 0) continue;
+            for (int j = 0; j < right.length; j++) {
+                if (right[j].signum() != 0) product[i + j] = product[i + j].add(left[i].multiply(right[j]));
+            }
+        }
+        return product;
+    }
+
+    // Exact polynomial division of product by one of its factors, working up from the lowest coefficient.
+    static BigInteger[] divide(BigInteger[] product, BigInteger[] factor) {
+        int lowest = 0;
+        while (factor[lowest].signum() == 0) lowest++;
+        BigInteger[] quotient = new BigInteger[product.length - factor.length + 1];
+        for (int j = 0; j < quotient.length; j++) {
+            BigInteger rest = j + lowest < product.length ? product[j + lowest] : BigInteger.ZERO;
+            for (int t = lowest + 1; t < factor.length && t <= j + lowest; t++) {
+                if (factor[t].signum() != 0) rest = rest.subtract(factor[t].multiply(quotient[j + lowest - t]));
+            }
+            quotient[j] = rest.divide(factor[lowest]);
+        }
+        return quotient;
+    }
+
+    private static double divide(BigInteger numerator, BigInteger denominator) {
+        return new BigDecimal(numerator).divide(new BigDecimal(denominator), PRECISION).doubleValue();
+    }
+
+    private static class Component {
+        private final int[] variables;
+        private final int[][] variablesOfConstraint;
+        private final int[] remaining;
+        private final ComponentKey key;
+
+        Component(int[] variables, int[][] variablesOfConstraint, int[] remaining, ComponentKey key) {
+            this.variables = variables;
+            this.variablesOfConstraint = variablesOfConstraint;
+            this.remaining = remaining;
+            this.key = key;
+        }
+    }
+
+    private static class ComponentKey {
+        private final int[] key;
+        private final int hash;
+
+        ComponentKey(int[] key) {
+            this.key = key;
+            this.hash = Arrays.hashCode(key);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof ComponentKey && Arrays.equals(key, ((ComponentKey) other).key);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    // Solutions of a component by number of mines, possibly scaled estimates when not exact.
+    private static class ComponentCounts {
+        private final BigInteger[] solutionsByMines;
+        private final BigInteger[][] mineSolutionsByMines;
+        private final boolean exact;
+
+        ComponentCounts(BigInteger[] solutionsByMines, BigInteger[][] mineSolutionsByMines, boolean exact) {
+            this.solutionsByMines = solutionsByMines;
+            this.mineSolutionsByMines = mineSolutionsByMines;
+            this.exact = exact;
+        }
+
+        static ComponentCounts of(Enumeration enumeration) {
+            BigInteger[][] mineSolutions = new BigInteger[enumeration.mineSolutionsByMines.length][];
+            for (int v = 0; v < mineSolutions.length; v++) {
+                mineSolutions[v] = toBigIntegers(enumeration.mineSolutionsByMines[v]);
+            }
+            return new ComponentCounts(toBigIntegers(enumeration.solutionsByMines), mineSolutions, true);
+        }
+
+        // Estimates are rescaled so the largest is 2^52 and rounded, the scale cancels out when combining.
+        static ComponentCounts of(MonteCarloSampler sampler) {
+            double largest = 0;
+            for (double estimate : sampler.solutionsByMines) largest = Math.max(largest, estimate);
+            if (largest == 0) return null;
+            double scale = Math.scalb(1.0, 52) / largest;
+            BigInteger[][] mineSolutions = new BigInteger[sampler.mineSolutionsByMines.length][];
+            for (int v = 0; v < mineSolutions.length; v++) {
+                mineSolutions[v] = toBigIntegers(sampler.mineSolutionsByMines[v], scale);
+            }
+            return new ComponentCounts(toBigIntegers(sampler.solutionsByMines, scale), mineSolutions, false);
+        }
+
+        private static BigInteger[] toBigIntegers(long[] values) {
+            BigInteger[] converted = new BigInteger[values.length];
+            for (int i = 0; i < values.length; i++) converted[i] = BigInteger.valueOf(values[i]);
+            return converted;
+        }
+
+        private static BigInteger[] toBigIntegers(double[] values, double scale) {
+            BigInteger[] converted = new BigInteger[values.length];
+            for (int i = 0; i < values.length; i++) converted[i] = BigInteger.valueOf(Math.round(values[i] * scale));
+            return converted;
+        }
+    }
+
+    private static class ComponentTask extends RecursiveAction {
+        private final Component component;
+        private final long deadlineNanos;
+        private ComponentCounts counts;
+
+        ComponentTask(Component component, long deadlineNanos) {
+            this.component = component;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        protected void compute() {
+            int variables = component.variables.length;
+            if (variables <= MAX_EXACT_CELLS) {
+                Enumeration enumeration = new Enumeration(variables, component.variablesOfConstraint,
+                        component.remaining);
+                if (enumeration.run(deadlineNanos)) {
+                    counts = enumeration.getSolutions() == 0 ? null : ComponentCounts.of(enumeration);
+                    return;
+                }
+            }
+            Log.debug(TAG, () -> "Sampling a component of " + variables + " cells.");
+            MonteCarloSampler sampler = new MonteCarloSampler(variables, component.variablesOfConstraint,
+                    component.remaining, component.key.hash);
+            sampler.run(deadlineNanos);
+            counts = ComponentCounts.of(sampler);
+        }
+    }
+}
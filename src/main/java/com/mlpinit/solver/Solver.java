@@ -0,0 +1,399 @@
+package com.mlpinit.solver;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.BoardUpdate;
+import com.mlpinit.utils.Log;
+
+import java.util.Arrays;
+
+/*
+ * Deterministic solver working on what a player can see. Every opened number is a constraint on its closed
+ * neighbours. Constraints are checked with three rules, from cheap to expensive:
+ *
+ *  - single cell: a number whose remaining mines equal zero or its number of unknown neighbours,
+ *  - subset reduction: when the unknowns of one number are a subset of those of a nearby number, the
+ *    difference holds exactly the difference of their remaining mines,
+ *  - exact enumeration of every assignment of a small connected group of constraints, keeping cells that are
+ *    a mine, or safe, in all of them.
+ *
+ * The solver only looks at numbers whose surroundings changed since they were last checked: opened cells
+ * arrive through update() and every deduction re-queues the numbers around it, so a step never rescans the
+ * board. Cells are addressed by position, row * width + column.
+ */
+public class Solver {
+    private static final String TAG = "[Solver]";
+    // Larger groups are left alone rather than risking an exponential search.
+    public static final int MAX_ENUMERATION_CELLS = 24;
+
+    static final byte UNKNOWN = 0;
+    static final byte OPENED = 1;
+    static final byte SAFE = 2;
+    static final byte MINE = 3;
+    static final int[] NEIGHBOUR_ROW_OFFSETS = {-1, -1, -1, 0, 0, 1, 1, 1};
+    static final int[] NEIGHBOUR_COLUMN_OFFSETS = {-1, 0, 1, -1, 1, -1, 0, 1};
+
+    final int height;
+    final int width;
+    final byte[] knowledge;
+    final byte[] values;
+    private final boolean[] queued;
+    private final boolean[] candidate;
+    private final IntQueue dirty = new IntQueue();
+    private final IntQueue enumerationCandidates = new IntQueue();
+    private final IntQueue safeCells = new IntQueue();
+    private final IntQueue mineCells = new IntQueue();
+    private final int[] unknownScratch = new int[8];
+    private final int[] otherUnknownScratch = new int[8];
+    // Index of a cell in the group being enumerated, -1 when it is not part of one.
+    final int[] componentIndex;
+    private final IntQueue visitedConstraints = new IntQueue();
+    private int unknownCells;
+    private int knownMines = 0;
+    private int totalMines = -1;
+
+    public Solver(int height, int width) {
+        this.height = height;
+        this.width = width;
+        this.knowledge = new byte[height * width];
+        this.values = new byte[height * width];
+        this.queued = new boolean[height * width];
+        this.candidate = new boolean[height * width];
+        this.componentIndex = new int[height * width];
+        this.unknownCells = height * width;
+        Arrays.fill(componentIndex, -1);
+    }
+
+    // Solver for a board in progress, reading the cells that are already open once.
+    public Solver(Board board) {
+        this(board.getHeight(), board.getWidth());
+        for (int x = 0; x < height; x++) {
+            for (int y = 0; y < width; y++) {
+                int value = board.getVisibleValue(x, y);
+                if (value != Board.HIDDEN) opened(x * width + y, value);
+            }
+        }
+    }
+
+    // A batch of a board that was reset starts a new game, everything known about the previous one is dropped.
+    public void update(BoardUpdate update) {
+        if (update.isReset()) reset();
+        for (int i = 0; i < update.getOpenedCount(); i++) {
+            opened(update.getOpenedPosition(i), update.getOpenedValue(i));
+        }
+    }
+
+    // Forgets every opened cell and deduction, as for a board that has not been played yet.
+    public void reset() {
+        Arrays.fill(knowledge, UNKNOWN);
+        Arrays.fill(values, (byte) 0);
+        Arrays.fill(queued, false);
+        Arrays.fill(candidate, false);
+        Arrays.fill(componentIndex, -1);
+        dirty.clear();
+        enumerationCandidates.clear();
+        safeCells.clear();
+        mineCells.clear();
+        unknownCells = height * width;
+        knownMines = 0;
+    }
+
+    /*
+     * Enables the endgame rule: once all mines are known the remaining cells are safe, and once the unknown
+     * cells are exactly the missing mines they are all mines.
+     */
+    public void setTotalMines(int totalMines) {
+        this.totalMines = totalMines;
+    }
+
+    public void opened(int position, int value) {
+        if (knowledge[position] == OPENED) return;
+        if (knowledge[position] == UNKNOWN) unknownCells--;
+        knowledge[position] = OPENED;
+        values[position] = (byte) value;
+        enqueue(position);
+        enqueueOpenedNeighbours(position);
+    }
+
+    /*
+     * Runs the rules until nothing new follows and falls back to enumeration only when the rules are stuck.
+     * Returns true when new safe cells or mines were found.
+     */
+    public boolean solve() {
+        boolean progress = false;
+        while (true) {
+            while (!dirty.isEmpty()) {
+                int position = dirty.poll();
+                queued[position] = false;
+                if (knowledge[position] != OPENED) continue;
+                if (applyRules(position)) {
+                    progress = true;
+                } else if (!candidate[position]) {
+                    candidate[position] = true;
+                    enumerationCandidates.add(position);
+                }
+            }
+            if (progress) return true;
+            if (!enumerate() && !applyMineCount()) return false;
+            progress = true;
+        }
+    }
+
+    // Next deduced safe cell that has not been opened yet, or -1.
+    public int nextSafeCell() {
+        while (!safeCells.isEmpty()) {
+            int position = safeCells.poll();
+            if (knowledge[position] == SAFE) return position;
+        }
+        return -1;
+    }
+
+    // Next deduced mine that has not been returned yet, or -1.
+    public int nextMineCell() {
+        return mineCells.isEmpty() ? -1 : mineCells.poll();
+    }
+
+    public boolean isKnownSafe(int position) {
+        return knowledge[position] == SAFE || knowledge[position] == OPENED;
+    }
+
+    public boolean isKnownMine(int position) {
+        return knowledge[position] == MINE;
+    }
+
+    // Closed cells that are deduced safe right now.
+    public int[] getSafeCells() {
+        return collect(SAFE);
+    }
+
+    public int[] getMineCells() {
+        return collect(MINE);
+    }
+
+    // Cells that are neither opened nor deduced.
+    public int getUnknownCells() {
+        return unknownCells;
+    }
+
+    public int getKnownMines() {
+        return knownMines;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    private int[] collect(byte kind) {
+        IntQueue cells = new IntQueue();
+        for (int position = 0; position < knowledge.length; position++) {
+            if (knowledge[position] == kind) cells.add(position);
+        }
+        return cells.toArray();
+    }
+
+    private boolean applyRules(int position) {
+        int unknowns = collectUnknown(position, unknownScratch);
+        if (unknowns == 0) return false;
+        int remaining = remainingMines(position);
+        if (remaining == 0 || remaining == unknowns) {
+            for (int i = 0; i < unknowns; i++) deduce(unknownScratch[i], remaining != 0);
+            return true;
+        }
+        int x = position / width;
+        int y = position % width;
+        for (int otherX = Math.max(0, x - 2); otherX <= Math.min(height - 1, x + 2); otherX++) {
+            for (int otherY = Math.max(0, y - 2); otherY <= Math.min(width - 1, y + 2); otherY++) {
+                int other = otherX * width + otherY;
+                if (other == position || knowledge[other] != OPENED) continue;
+                int otherUnknowns = collectUnknown(other, otherUnknownScratch);
+                if (otherUnknowns == 0) continue;
+                int otherRemaining = remainingMines(other);
+                if (reduce(unknownScratch, unknowns, remaining, otherUnknownScratch, otherUnknowns, otherRemaining)
+                        || reduce(otherUnknownScratch, otherUnknowns, otherRemaining, unknownScratch, unknowns,
+                        remaining)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    // If the small set is contained in the big one, the difference holds the difference of remaining mines.
+    private boolean reduce(int[] small, int smallCount, int smallRemaining, int[] big, int bigCount,
+                           int bigRemaining) {
+        if (smallCount >= bigCount) return false;
+        for (int i = 0; i < smallCount; i++) {
+            if (!contains(big, bigCount, small[i])) return false;
+        }
+        int differenceRemaining = bigRemaining - smallRemaining;
+        int differenceCount = bigCount - smallCount;
+        if (differenceRemaining != 0 && differenceRemaining != differenceCount) return false;
+        for (int i = 0; i < bigCount; i++) {
+            if (!contains(small, smallCount, big[i])) deduce(big[i], differenceRemaining != 0);
+        }
+        return true;
+    }
+
+    private static boolean contains(int[] cells, int count, int cell) {
+        for (int i = 0; i < count; i++) if (cells[i] == cell) return true;
+        return false;
+    }
+
+    /*
+     * Enumerates the groups of constraints that the rules could not resolve. Only groups reached from numbers
+     * checked since the last enumeration are visited.
+     */
+    private boolean enumerate() {
+        boolean progress = false;
+        IntQueue constraints = new IntQueue();
+        IntQueue variables = new IntQueue();
+        while (!enumerationCandidates.isEmpty()) {
+            int start = enumerationCandidates.poll();
+            candidate[start] = false;
+            if (knowledge[start] != OPENED || componentIndex[start] >= 0) continue;
+            if (collectUnknown(start, unknownScratch) == 0) continue;
+            collectComponent(start, constraints, variables);
+            int[] constraintCells = constraints.toArray();
+            int[] variableCells = variables.toArray();
+            if (variableCells.length <= MAX_ENUMERATION_CELLS) {
+                progress |= enumerateComponent(constraintCells, variableCells);
+            } else {
+                Log.debug(TAG, () -> "Skipping enumeration of " + variableCells.length + " cells.");
+            }
+            // numbers stay marked until every candidate was handled, so a group is enumerated only once
+            for (int cell : variableCells) componentIndex[cell] = -1;
+        }
+        while (!visitedConstraints.isEmpty()) componentIndex[visitedConstraints.poll()] = -1;
+        return progress;
+    }
+
+    // Collects the numbers and unknown cells connected to start through shared unknown cells.
+    void collectComponent(int start, IntQueue constraints, IntQueue variables) {
+        constraints.clear();
+        variables.clear();
+        IntQueue pending = new IntQueue();
+        pending.add(start);
+        componentIndex[start] = 0;
+        visitedConstraints.add(start);
+        while (!pending.isEmpty()) {
+            int constraint = pending.poll();
+            constraints.add(constraint);
+            int x = constraint / width;
+            int y = constraint % width;
+            for (int direction = 0; direction < NEIGHBOUR_ROW_OFFSETS.length; direction++) {
+                int neighbourX = x + NEIGHBOUR_ROW_OFFSETS[direction];
+                int neighbourY = y + NEIGHBOUR_COLUMN_OFFSETS[direction];
+                if (!contains(neighbourX, neighbourY)) continue;
+                int variable = neighbourX * width + neighbourY;
+                if (knowledge[variable] != UNKNOWN || componentIndex[variable] >= 0) continue;
+                componentIndex[variable] = variables.size();
+                variables.add(variable);
+                for (int next = 0; next < NEIGHBOUR_ROW_OFFSETS.length; next++) {
+                    int otherX = neighbourX + NEIGHBOUR_ROW_OFFSETS[next];
+                    int otherY = neighbourY + NEIGHBOUR_COLUMN_OFFSETS[next];
+                    if (!contains(otherX, otherY)) continue;
+                    int other = otherX * width + otherY;
+                    if (knowledge[other] != OPENED || componentIndex[other] != -1) continue;
+                    componentIndex[other] = 0;
+                    visitedConstraints.add(other);
+                    pending.add(other);
+                }
+            }
+        }
+    }
+
+    private boolean enumerateComponent(int[] constraintCells, int[] variableCells) {
+        Enumeration enumeration = Enumeration.of(this, constraintCells, variableCells);
+        enumeration.run();
+        long solutions = enumeration.getSolutions();
+        if (solutions == 0) return false;
+        boolean progress = false;
+        for (int i = 0; i < variableCells.length; i++) {
+            long mineSolutions = enumeration.getMineSolutions(i);
+            if (mineSolutions == 0) {
+                deduce(variableCells[i], false);
+                progress = true;
+            } else if (mineSolutions == solutions) {
+                deduce(variableCells[i], true);
+                progress = true;
+            }
+        }
+        return progress;
+    }
+
+    // The only rule that scans the board, and it fires at most twice per game.
+    private boolean applyMineCount() {
+        if (totalMines < 0 || unknownCells == 0) return false;
+        int missingMines = totalMines - knownMines;
+        if (missingMines != 0 && missingMines != unknownCells) return false;
+        for (int position = 0; position < knowledge.length; position++) {
+            if (knowledge[position] == UNKNOWN) deduce(position, missingMines != 0);
+        }
+        return true;
+    }
+
+    void deduce(int position, boolean mine) {
+        if (knowledge[position] != UNKNOWN) return;
+        knowledge[position] = mine ? MINE : SAFE;
+        unknownCells--;
+        if (mine) {
+            knownMines++;
+            mineCells.add(position);
+        } else {
+            safeCells.add(position);
+        }
+        enqueueOpenedNeighbours(position);
+    }
+
+    int collectUnknown(int position, int[] unknowns) {
+        int count = 0;
+        int x = position / width;
+        int y = position % width;
+        for (int direction = 0; direction < NEIGHBOUR_ROW_OFFSETS.length; direction++) {
+            int neighbourX = x + NEIGHBOUR_ROW_OFFSETS[direction];
+            int neighbourY = y + NEIGHBOUR_COLUMN_OFFSETS[direction];
+            if (contains(neighbourX, neighbourY) && knowledge[neighbourX * width + neighbourY] == UNKNOWN) {
+                unknowns[count++] = neighbourX * width + neighbourY;
+            }
+        }
+        return count;
+    }
+
+    // Mines around an opened cell that are not known yet.
+    int remainingMines(int position) {
+        int mines = 0;
+        int x = position / width;
+        int y = position % width;
+        for (int direction = 0; direction < NEIGHBOUR_ROW_OFFSETS.length; direction++) {
+            int neighbourX = x + NEIGHBOUR_ROW_OFFSETS[direction];
+            int neighbourY = y + NEIGHBOUR_COLUMN_OFFSETS[direction];
+            if (contains(neighbourX, neighbourY) && knowledge[neighbourX * width + neighbourY] == MINE) mines++;
+        }
+        return values[position] - mines;
+    }
+
+    boolean contains(int x, int y) {
+        return x >= 0 && y >= 0 && x < height && y < width;
+    }
+
+    private void enqueue(int position) {
+        if (queued[position]) return;
+        queued[position] = true;
+        dirty.add(position);
+    }
+
+    private void enqueueOpenedNeighbours(int position) {
+        int x = position / width;
+        int y = position % width;
+        for (int direction = 0; direction < NEIGHBOUR_ROW_OFFSETS.length; direction++) {
+            int neighbourX = x + NEIGHBOUR_ROW_OFFSETS[direction];
+            int neighbourY = y + NEIGHBOUR_COLUMN_OFFSETS[direction];
+            if (contains(neighbourX, neighbourY) && knowledge[neighbourX * width + neighbourY] == OPENED) {
+                enqueue(neighbourX * width + neighbourY);
+            }
+        }
+    }
+}
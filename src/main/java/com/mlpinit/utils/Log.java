@@ -1,7 +1,150 @@
 package com.mlpinit.utils;
 
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/*
+ * Leveled logger. Messages below the current level are dropped before they are built, either through the
+ * Supplier overloads or by checking isDebugEnabled() around expensive messages. Accepted messages are handed to
+ * a background thread that writes them in batches, so logging never blocks on stdout. When the queue is full
+ * messages are dropped and counted rather than slowing the caller down. Only the writer thread writes, so
+ * messages of a thread always come out in order; flush() waits for the writer instead of writing itself.
+ *
+ * The level defaults to INFO and can be changed with -Dminesweeper.log.level=DEBUG or setLevel().
+ */
 public class Log {
+    private static final int QUEUE_CAPACITY = 1 << 16;
+    private static final int BATCH_SIZE = 1024;
+    private static final long FLUSH_TIMEOUT_MILLIS = 1000;
+
+    private static volatile Level level = Level.fromName(System.getProperty("minesweeper.log.level"), Level.INFO);
+    // Messages, and the latches of flushes waiting for the messages before them.
+    private static final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private static final AtomicLong droppedMessages = new AtomicLong();
+    private static volatile PrintStream out = System.out;
+    private static volatile Thread writer = null;
+
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR, OFF;
+
+        static Level fromName(String name, Level defaultLevel) {
+            if (name == null) return defaultLevel;
+            try {
+                return Level.valueOf(name.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return defaultLevel;
+            }
+        }
+    }
+
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+    public static Level getLevel() {
+        return level;
+    }
+
+    public static boolean isEnabled(Level messageLevel) {
+        return messageLevel.compareTo(level) >= 0 && messageLevel != Level.OFF;
+    }
+
+    public static boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG);
+    }
+
     public static void debug(String tag, String message) {
-        System.out.println(tag + ": " + message);
+        if (isEnabled(Level.DEBUG)) enqueue(tag, message);
+    }
+
+    public static void debug(String tag, Supplier<String> message) {
+        if (isEnabled(Level.DEBUG)) enqueue(tag, message.get());
+    }
+
+    public static void info(String tag, String message) {
+        if (isEnabled(Level.INFO)) enqueue(tag, message);
+    }
+
+    public static void info(String tag, Supplier<String> message) {
+        if (isEnabled(Level.INFO)) enqueue(tag, message.get());
+    }
+
+    public static void warn(String tag, String message) {
+        if (isEnabled(Level.WARN)) enqueue(tag, message);
+    }
+
+    public static void error(String tag, String message) {
+        if (isEnabled(Level.ERROR)) enqueue(tag, message);
+    }
+
+    public static long getDroppedMessages() {
+        return droppedMessages.get();
+    }
+
+    // Waits until everything logged before the call has been written, for at most a second.
+    public static void flush() {
+        if (writer == null) return;
+        CountDownLatch written = new CountDownLatch(1);
+        try {
+            if (queue.offer(written, FLUSH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                written.await(FLUSH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Replaces the stream messages are written to, for tests.
+    static void setOutput(PrintStream output) {
+        out = output;
+    }
+
+    private static void enqueue(String tag, String message) {
+        if (writer == null) startWriter();
+        if (!queue.offer(tag + ": " + message)) droppedMessages.incrementAndGet();
+    }
+
+    private static synchronized void startWriter() {
+        if (writer != null) return;
+        Thread thread = new Thread(Log::drain, "minesweeper-log");
+        thread.setDaemon(true);
+        thread.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(Log::flush, "minesweeper-log-flush"));
+        writer = thread;
+    }
+
+    private static void drain() {
+        List<Object> batch = new ArrayList<>(BATCH_SIZE);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, BATCH_SIZE - 1);
+            write(batch);
+        }
+    }
+
+    // Writes the messages of the batch and then releases the flushes that were waiting for them.
+    private static void write(List<Object> batch) {
+        StringBuilder text = new StringBuilder(batch.size() * 64);
+        for (Object entry : batch) {
+            if (entry instanceof String) text.append(entry).append('\n');
+        }
+        PrintStream output = out;
+        output.print(text);
+        output.flush();
+        for (Object entry : batch) {
+            if (entry instanceof CountDownLatch) ((CountDownLatch) entry).countDown();
+        }
+        batch.clear();
     }
 }
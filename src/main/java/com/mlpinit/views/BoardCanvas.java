@@ -0,0 +1,174 @@
+package com.mlpinit.views;
+
+import com.mlpinit.models.BoardUpdate;
+import com.mlpinit.models.Coordinate;
+import com.mlpinit.models.MouseButtonEvent;
+import rx.Observable;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.Arrays;
+
+/*
+ * Paints the cells of a board in a single component. The canvas keeps its own byte per cell with what is on
+ * screen, applies board updates to it and repaints only the rectangle covering the changed cells. Painting
+ * only visits the cells inside the clip and copies each one from the CellSprites atlas, so the cost of a
+ * frame depends on the visible area and not on the size of the board.
+ */
+public class BoardCanvas extends JComponent implements Scrollable {
+    private static final String TAG = "[BoardCanvas]";
+    public static final int CELL_SIZE = 25;
+    // The largest viewport asked for, bigger boards scroll.
+    private static final Dimension MAX_VIEWPORT = new Dimension(1200, 800);
+
+    // A cell byte holds one of these states in the high nibble and the value of opened cells in the low one.
+    static final int CLOSED = 0x00;
+    static final int OPENED = 0x10;
+    static final int MARKED = 0x20;
+    static final int MINE = 0x30;
+    static final int INCORRECT_MARK = 0x40;
+    // Sprite of every possible cell byte.
+    private static final int[] SPRITE_OF_CELL = new int[256];
+    static {
+        for (int value = 0; value <= 8; value++) SPRITE_OF_CELL[OPENED | value] = CellSprites.OPENED + value;
+        SPRITE_OF_CELL[MARKED] = CellSprites.MARKED;
+        SPRITE_OF_CELL[MINE] = CellSprites.MINE;
+        SPRITE_OF_CELL[INCORRECT_MARK] = CellSprites.INCORRECT_MARK;
+    }
+
+    private final int height;
+    private final int width;
+    private final byte[] cells;
+    private final CellSprites sprites;
+    private final CellMouseListener mouseListener;
+    private int dirtyFromRow;
+    private int dirtyToRow;
+    private int dirtyFromColumn;
+    private int dirtyToColumn;
+
+    public BoardCanvas(int height, int width) {
+        this.height = height;
+        this.width = width;
+        this.cells = new byte[height * width];
+        this.sprites = CellSprites.forCellSize(CELL_SIZE);
+        this.mouseListener = new CellMouseListener(height, width, CELL_SIZE);
+        addMouseListener(mouseListener);
+        addMouseMotionListener(mouseListener);
+        setOpaque(true);
+        clearDirty();
+    }
+
+    // Presses and releases on the cells of the canvas, and MOUSE_ENTERED whenever the pointer reaches another cell.
+    public Observable<MouseButtonEvent> getMouseButtonEventObservable() {
+        return mouseListener.mouseButtonEventObservable;
+    }
+
+    public Coordinate cellAt(int pixelX, int pixelY) {
+        int row = Math.max(0, Math.min(height - 1, pixelY / CELL_SIZE));
+        int column = Math.max(0, Math.min(width - 1, pixelX / CELL_SIZE));
+        return new Coordinate(row, column);
+    }
+
+    // Applies the changes of one request and schedules a repaint of the rectangle they cover.
+    public void apply(BoardUpdate update) {
+        accumulate(update);
+        repaintDirty();
+    }
+
+    // Applies the changes of one request without repainting, so several updates can share a single repaint.
+    public void accumulate(BoardUpdate update) {
+        for (int i = 0; i < update.getOpenedCount(); i++) {
+            set(update.getOpenedPosition(i), OPENED | update.getOpenedValue(i));
+        }
+        for (int i = 0; i < update.getUnmarkedCount(); i++) set(update.getUnmarkedPosition(i), CLOSED);
+        for (int i = 0; i < update.getMarkedCount(); i++) set(update.getMarkedPosition(i), MARKED);
+        for (int i = 0; i < update.getMineCount(); i++) set(update.getMinePosition(i), MINE);
+        for (int i = 0; i < update.getIncorrectMarkCount(); i++) {
+            set(update.getIncorrectMarkPosition(i), INCORRECT_MARK);
+        }
+    }
+
+    // Closes every cell again; the whole canvas is repainted with the next repaintDirty.
+    public void reset() {
+        Arrays.fill(cells, (byte) CLOSED);
+        dirtyFromRow = 0;
+        dirtyToRow = height - 1;
+        dirtyFromColumn = 0;
+        dirtyToColumn = width - 1;
+    }
+
+    // Schedules a repaint of the rectangle covering every cell changed since the last one.
+    public void repaintDirty() {
+        if (dirtyFromRow <= dirtyToRow) {
+            repaint(dirtyFromColumn * CELL_SIZE, dirtyFromRow * CELL_SIZE,
+                    (dirtyToColumn - dirtyFromColumn + 1) * CELL_SIZE, (dirtyToRow - dirtyFromRow + 1) * CELL_SIZE);
+        }
+        clearDirty();
+    }
+
+    private void set(int position, int cell) {
+        cells[position] = (byte) cell;
+        int row = position / width;
+        int column = position % width;
+        dirtyFromRow = Math.min(dirtyFromRow, row);
+        dirtyToRow = Math.max(dirtyToRow, row);
+        dirtyFromColumn = Math.min(dirtyFromColumn, column);
+        dirtyToColumn = Math.max(dirtyToColumn, column);
+    }
+
+    private void clearDirty() {
+        dirtyFromRow = Integer.MAX_VALUE;
+        dirtyToRow = -1;
+        dirtyFromColumn = Integer.MAX_VALUE;
+        dirtyToColumn = -1;
+    }
+
+    @Override
+    protected void paintComponent(Graphics graphics) {
+        Rectangle clip = graphics.getClipBounds();
+        if (clip == null) clip = new Rectangle(0, 0, width * CELL_SIZE, height * CELL_SIZE);
+        int fromRow = Math.max(0, clip.y / CELL_SIZE);
+        int toRow = Math.min(height - 1, (clip.y + clip.height - 1) / CELL_SIZE);
+        int fromColumn = Math.max(0, clip.x / CELL_SIZE);
+        int toColumn = Math.min(width - 1, (clip.x + clip.width - 1) / CELL_SIZE);
+        for (int row = fromRow; row <= toRow; row++) {
+            for (int column = fromColumn; column <= toColumn; column++) {
+                sprites.draw(graphics, SPRITE_OF_CELL[cells[row * width + column] & 0xFF], column * CELL_SIZE,
+                        row * CELL_SIZE);
+            }
+        }
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(width * CELL_SIZE, height * CELL_SIZE);
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        Dimension preferred = getPreferredSize();
+        return new Dimension(Math.min(preferred.width, MAX_VIEWPORT.width),
+                Math.min(preferred.height, MAX_VIEWPORT.height));
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return CELL_SIZE;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        int visible = orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+        return Math.max(CELL_SIZE, visible - CELL_SIZE);
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+}
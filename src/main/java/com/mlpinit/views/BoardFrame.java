@@ -3,17 +3,19 @@ package com.mlpinit.views;
 import com.mlpinit.models.*;
 
 import rx.Observable;
+import rx.Subscription;
 import rx.observables.SwingObservable;
 
 import javax.swing.*;
 import javax.swing.border.LineBorder;
-import javax.swing.plaf.ButtonUI;
-import javax.swing.plaf.basic.BasicButtonUI;
 import java.awt.*;
 import java.awt.event.MouseEvent;
+import java.util.function.Consumer;
 
 public class BoardFrame extends JFrame {
     private static final String TAG = "[BoardFrame]";
+    // About 60 frames per second.
+    private static final int FRAME_MILLIS = 16;
     private int startingNrOfMines;
     private int height;
     private int width;
@@ -21,13 +23,20 @@ public class BoardFrame extends JFrame {
     private JTextField timerTextField;
 
     private Observable<MouseEvent> restartGameObservable;
+    private Observable<MouseEvent> saveGameObservable;
+    private Observable<MouseEvent> loadGameObservable;
     public Observable<MouseButtonEvent> cellButtonBoardRequestObservable;
-    public JButton[][] cellButtons;
+    private BoardCanvas boardCanvas;
 
-    public BoardFrame(Observable<Cell> openCellObservable, Observable<Cell> markCellObservable,
-                      Observable<Cell> incorrectCellMarkObservable, Observable<Cell> openMineCellObservable,
-                      Observable<Cell> removeCellMarkObservable, Observable<Integer> remainingMinesObservable,
-                      Observable<Void> gameWonObservable, Observable<Integer> elapsedTimeObservable,
+    // Updates published by the engine thread, drained on the EDT once per frame.
+    private final UpdateRingBuffer updates;
+    private final Timer frameTimer;
+    private final Consumer<BoardUpdate> coalesce = this::coalesce;
+    private final Subscription elapsedTimeSubscription;
+    private int remainingMines = -1;
+    private boolean won;
+
+    public BoardFrame(UpdateRingBuffer updates, Observable<Integer> elapsedTimeObservable,
                       int height, int width, int startingNrOfMines)
     {
         super("Minesweeper");
@@ -36,27 +45,36 @@ public class BoardFrame extends JFrame {
 
         this.height = height;
         this.width = width;
-        this.cellButtons = new JButton[height][width];
-        openCellObservable.subscribe(this::openCell);
-        markCellObservable.subscribe(this::markCell);
-        removeCellMarkObservable.subscribe(this::removeCellMark);
-        incorrectCellMarkObservable.subscribe(this::updateCellMarkedIncorrectly);
-        openMineCellObservable.subscribe(this::openMine);
-        remainingMinesObservable.subscribe(this::updateNrOfMinesTextField);
-        elapsedTimeObservable.subscribe(this::updateTimer);
-        gameWonObservable.subscribe(this::gameWon);
+        this.updates = updates;
+        this.elapsedTimeSubscription = elapsedTimeObservable.subscribe(this::updateTimer);
         this.startingNrOfMines = startingNrOfMines;
-        this.cellButtonBoardRequestObservable = Observable.empty();
         addComponentsToPane(this.getContentPane());
         this.pack();
         this.setLocationRelativeTo(null);
         this.setVisible(true);
+        this.frameTimer = new Timer(FRAME_MILLIS, event -> drainUpdates());
+        frameTimer.start();
+    }
+
+    @Override
+    public void dispose() {
+        frameTimer.stop();
+        elapsedTimeSubscription.unsubscribe();
+        super.dispose();
     }
 
     public Observable<MouseEvent> getRestartGameObservable() {
         return restartGameObservable;
     }
 
+    public Observable<MouseEvent> getSaveGameObservable() {
+        return saveGameObservable;
+    }
+
+    public Observable<MouseEvent> getLoadGameObservable() {
+        return loadGameObservable;
+    }
+
     public Observable<MouseButtonEvent> getCellButtonBoardRequestObservable() {
         return cellButtonBoardRequestObservable;
     }
@@ -64,10 +82,15 @@ public class BoardFrame extends JFrame {
     private void addComponentsToPane(final Container pane) {
         final JPanel menuPanel = new JPanel();
         menuPanel.setLayout(new BorderLayout());
-        JButton restartButton = new JButton("Restart");
-        restartButton.setBorder(new LineBorder(BasicColor.baseColor, 3));
-        restartButton.setPreferredSize(new Dimension(80, 50));
-        menuPanel.add(restartButton, BorderLayout.CENTER);
+        final JPanel gamePanel = new JPanel();
+        gamePanel.setLayout(new GridLayout(1, 3));
+        JButton saveButton = menuButton("Save");
+        JButton restartButton = menuButton("Restart");
+        JButton loadButton = menuButton("Load");
+        gamePanel.add(saveButton);
+        gamePanel.add(restartButton);
+        gamePanel.add(loadButton);
+        menuPanel.add(gamePanel, BorderLayout.CENTER);
         nrOfMinesTextField = new JTextField("" + startingNrOfMines + " ");
         nrOfMinesTextField.setFont(new Font("sans-serif", Font.PLAIN, 20));
         nrOfMinesTextField.setBorder(new LineBorder(BasicColor.baseColor, 3));
@@ -90,81 +113,72 @@ public class BoardFrame extends JFrame {
 
         menuPanel.add(timerTextField, BorderLayout.EAST);
         restartGameObservable = SwingObservable.fromMouseEvents(restartButton);
+        saveGameObservable = SwingObservable.fromMouseEvents(saveButton);
+        loadGameObservable = SwingObservable.fromMouseEvents(loadButton);
         pane.add(menuPanel, BorderLayout.NORTH);
 
-        final JPanel cellsPanel = new JPanel();
-        cellsPanel.setLayout(new GridLayout(height,width));
-        for (int i = 0; i < height; i++) {
-            for (int j = 0; j < width; j++) {
-                final Coordinate coordinate = new Coordinate(i, j);
-                JButton button = new JButton();
-                button.setUI((ButtonUI) BasicButtonUI.createUI(button));
-                button.setBackground(BasicColor.baseColor);
-                button.setPreferredSize(new Dimension(25 ,25));
-                button.setBorder(BorderFactory.createEtchedBorder());
-                cellButtons[i][j] = button;
-                Observable<MouseButtonEvent> observable = SwingObservable.fromMouseEvents(button)
-                        .map(event -> new MouseButtonEvent(coordinate, event.getButton(), event.getID()));
-                cellButtonBoardRequestObservable = cellButtonBoardRequestObservable.mergeWith(observable);
-                cellsPanel.add(button);
-            } }
-        pane.add(cellsPanel, BorderLayout.CENTER);
+        boardCanvas = new BoardCanvas(height, width);
+        cellButtonBoardRequestObservable = boardCanvas.getMouseButtonEventObservable();
+        JScrollPane scrollPane = new JScrollPane(boardCanvas);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder());
+        pane.add(scrollPane, BorderLayout.CENTER);
     }
 
-    private void openCell(Cell cell) {
-        JButton button = cellButtons[cell.getX()][cell.getY()];
-        button.setUI(getBasicButton().getUI());
-        button.setBackground(BasicColor.openCellColor);
-        button.setText("" + cell.getDisplayValue());
-        button.setFont(button.getFont().deriveFont(Font.BOLD));
-        button.setBorder(new LineBorder(BasicColor.openCellColor));
-        button.setForeground(BasicColor.fromValue(cell.getValue()));
+    private JButton menuButton(String text) {
+        JButton button = new JButton(text);
+        button.setBorder(new LineBorder(BasicColor.baseColor, 3));
+        button.setPreferredSize(new Dimension(80, 50));
+        return button;
     }
 
-    private void openMine(Cell cell) {
-        JButton button = cellButtons[cell.getX()][cell.getY()];
-        button.setBackground(BasicColor.mineColor);
-        button.setText("*");
-        button.setFont(button.getFont().deriveFont(Font.BOLD));
-        button.setBorder(new LineBorder(BasicColor.openCellColor));
-        button.setForeground(Color.white);
+    // Applies every update published since the last frame and repaints the cells they touched at once.
+    private void drainUpdates() {
+        if (updates.drain(coalesce) == 0) return;
+        boardCanvas.repaintDirty();
+        if (remainingMines >= 0) {
+            updateNrOfMinesTextField(remainingMines);
+            remainingMines = -1;
+        }
+        if (won) {
+            won = false;
+            gameWon();
+        }
     }
 
-    private void markCell(Cell cell) {
-        JButton button = cellButtons[cell.getX()][cell.getY()];
-        button.setBackground(BasicColor.markedCellBackgroundColor);
-        button.setText("!");
-        button.setFont(button.getFont().deriveFont(Font.BOLD));
-        button.setForeground(Color.white);
+    // Shows a new game in the existing frame: all cells closed and the counter full. The clock shows whatever
+    // the timer publishes, which the controller sets when it restarts or loads a game.
+    public void reset() {
+        boardCanvas.reset();
+        updateNrOfMinesTextField(startingNrOfMines);
+        remainingMines = -1;
+        won = false;
     }
 
-    private void removeCellMark(Cell cell) {
-        JButton button = cellButtons[cell.getX()][cell.getY()];
-        button.setBackground(BasicColor.baseColor);
-        button.setText("");
-        button.setFont(button.getFont().deriveFont(Font.BOLD));
-    }
-
-    private void updateCellMarkedIncorrectly(Cell cell) {
-        JButton button = cellButtons[cell.getX()][cell.getY()];
-        button.setText("!*");
-        button.setForeground(Color.white);
-        button.setBackground(BasicColor.incorrectCellMarkBackgroundColor);
+    private void coalesce(BoardUpdate update) {
+        // a reset starts a new game or shows a loaded one, the counter is whatever that game has left
+        if (update.isReset()) {
+            reset();
+            remainingMines = update.getRemainingMines();
+        }
+        boardCanvas.accumulate(update);
+        if (update.getMarkedCount() > 0 || update.getUnmarkedCount() > 0) remainingMines = update.getRemainingMines();
+        if (update.isGameWon()) won = true;
     }
 
     private void updateNrOfMinesTextField(int nrOfMines) {
         nrOfMinesTextField.setText("" + nrOfMines + " ");
     }
 
-    private void gameWon(Void nullValue) {
+    // Tells the player why a game could not be saved or loaded.
+    public void showError(String message) {
+        JOptionPane.showMessageDialog(this.getContentPane(), message, "Minesweeper", JOptionPane.ERROR_MESSAGE);
+    }
+
+    private void gameWon() {
         JOptionPane.showMessageDialog(this.getContentPane(), "Congratulations! You found all the mines!");
     }
 
     private void updateTimer(int integer) {
         timerTextField.setText("" + integer + " ");
     }
-
-    private JButton getBasicButton() {
-        return new JButton();
-    }
 }
@@ -0,0 +1,91 @@
+package com.mlpinit.views;
+
+import com.mlpinit.models.Coordinate;
+import com.mlpinit.models.MouseButtonEvent;
+import rx.Observable;
+import rx.subjects.PublishSubject;
+
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+/*
+ * The only mouse listener of the board. Pixels are mapped to cells arithmetically, and since there are no
+ * per cell components any more, MOUSE_ENTERED is synthesized whenever the pointer moves onto another cell.
+ * That keeps the events the BoardActionInterpreter relies on: a press that is dragged to another cell acts on
+ * the cell it is released on. The cost of an event does not depend on the size of the board, and motion
+ * within a cell emits nothing.
+ */
+class CellMouseListener extends MouseAdapter {
+    private final int height;
+    private final int width;
+    private final int cellSize;
+    private final PublishSubject<MouseButtonEvent> mouseButtonEventSubject = PublishSubject.create();
+    private int currentRow = -1;
+    private int currentColumn = -1;
+
+    final Observable<MouseButtonEvent> mouseButtonEventObservable = mouseButtonEventSubject.share();
+
+    CellMouseListener(int height, int width, int cellSize) {
+        this.height = height;
+        this.width = width;
+        this.cellSize = cellSize;
+    }
+
+    @Override
+    public void mousePressed(MouseEvent event) {
+        moveTo(event, false);
+        emit(MouseEvent.MOUSE_PRESSED, event.getButton());
+    }
+
+    @Override
+    public void mouseReleased(MouseEvent event) {
+        moveTo(event, true);
+        emit(MouseEvent.MOUSE_RELEASED, event.getButton());
+    }
+
+    @Override
+    public void mouseEntered(MouseEvent event) {
+        moveTo(event, true);
+    }
+
+    @Override
+    public void mouseExited(MouseEvent event) {
+        // entering again should always report a cell, even the one that was left
+        if (!isDragging(event)) {
+            currentRow = -1;
+            currentColumn = -1;
+        }
+    }
+
+    @Override
+    public void mouseMoved(MouseEvent event) {
+        moveTo(event, true);
+    }
+
+    @Override
+    public void mouseDragged(MouseEvent event) {
+        moveTo(event, true);
+    }
+
+    // Tracks the cell under the pointer, the nearest one outside of the grid, and reports when it changed.
+    private void moveTo(MouseEvent event, boolean reportEntered) {
+        int row = Math.max(0, Math.min(height - 1, event.getY() / cellSize));
+        int column = Math.max(0, Math.min(width - 1, event.getX() / cellSize));
+        if (row == currentRow && column == currentColumn) return;
+        currentRow = row;
+        currentColumn = column;
+        if (reportEntered) emit(MouseEvent.MOUSE_ENTERED, MouseEvent.NOBUTTON);
+    }
+
+    private void emit(int id, int button) {
+        if (mouseButtonEventSubject.hasObservers()) {
+            Coordinate coordinate = new Coordinate(currentRow, currentColumn);
+            mouseButtonEventSubject.onNext(new MouseButtonEvent(coordinate, button, id));
+        }
+    }
+
+    private boolean isDragging(MouseEvent event) {
+        return (event.getModifiersEx() & (MouseEvent.BUTTON1_DOWN_MASK | MouseEvent.BUTTON2_DOWN_MASK |
+                MouseEvent.BUTTON3_DOWN_MASK)) != 0;
+    }
+}
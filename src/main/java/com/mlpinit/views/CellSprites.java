@@ -0,0 +1,107 @@
+package com.mlpinit.views;
+
+import com.mlpinit.models.BasicColor;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Every look a cell can have, rendered once per cell size into a single image laid out as one row of
+ * sprites. Painting a cell copies its sprite, so no fonts, borders or colors are touched while painting and
+ * nothing is allocated however many cells change.
+ */
+class CellSprites {
+    static final int CLOSED = 0;
+    // OPENED + value for the opened cells 0 - 8
+    static final int OPENED = 1;
+    static final int MARKED = 10;
+    static final int MINE = 11;
+    static final int INCORRECT_MARK = 12;
+    static final int SPRITES = 13;
+
+    private static final Map<Integer, CellSprites> atlases = new ConcurrentHashMap<>();
+
+    private final int cellSize;
+    private final BufferedImage atlas;
+
+    private CellSprites(int cellSize) {
+        this.cellSize = cellSize;
+        this.atlas = createImage(cellSize * SPRITES, cellSize);
+        Graphics2D graphics = atlas.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        graphics.setFont(new Font("sans-serif", Font.BOLD, Math.max(8, cellSize / 2)));
+        for (int sprite = 0; sprite < SPRITES; sprite++) render(graphics, sprite, sprite * cellSize);
+        graphics.dispose();
+    }
+
+    static CellSprites forCellSize(int cellSize) {
+        return atlases.computeIfAbsent(cellSize, CellSprites::new);
+    }
+
+    void draw(Graphics graphics, int sprite, int left, int top) {
+        int source = sprite * cellSize;
+        graphics.drawImage(atlas, left, top, left + cellSize, top + cellSize, source, 0, source + cellSize,
+                cellSize, null);
+    }
+
+    int getCellSize() {
+        return cellSize;
+    }
+
+    BufferedImage getAtlas() {
+        return atlas;
+    }
+
+    private void render(Graphics2D graphics, int sprite, int left) {
+        if (sprite == CLOSED) {
+            renderClosed(graphics, left, BasicColor.baseColor);
+        } else if (sprite == MARKED) {
+            renderClosed(graphics, left, BasicColor.markedCellBackgroundColor);
+            renderLabel(graphics, left, "!", Color.white);
+        } else if (sprite == INCORRECT_MARK) {
+            renderClosed(graphics, left, BasicColor.incorrectCellMarkBackgroundColor);
+            renderLabel(graphics, left, "!*", Color.white);
+        } else if (sprite == MINE) {
+            graphics.setColor(BasicColor.mineColor);
+            graphics.fillRect(left, 0, cellSize, cellSize);
+            graphics.setColor(BasicColor.openCellColor);
+            graphics.drawRect(left, 0, cellSize - 1, cellSize - 1);
+            renderLabel(graphics, left, "*", Color.white);
+        } else {
+            int value = sprite - OPENED;
+            graphics.setColor(BasicColor.openCellColor);
+            graphics.fillRect(left, 0, cellSize, cellSize);
+            if (value != 0) renderLabel(graphics, left, "" + value, BasicColor.fromValue(value));
+        }
+    }
+
+    // Closed cells look like the etched buttons the board used to be made of.
+    private void renderClosed(Graphics2D graphics, int left, Color background) {
+        graphics.setColor(background);
+        graphics.fillRect(left, 0, cellSize, cellSize);
+        graphics.setColor(background.brighter());
+        graphics.drawLine(left, 0, left + cellSize - 1, 0);
+        graphics.drawLine(left, 0, left, cellSize - 1);
+        graphics.setColor(background.darker());
+        graphics.drawLine(left, cellSize - 1, left + cellSize - 1, cellSize - 1);
+        graphics.drawLine(left + cellSize - 1, 0, left + cellSize - 1, cellSize - 1);
+    }
+
+    private void renderLabel(Graphics2D graphics, int left, String label, Color color) {
+        FontMetrics metrics = graphics.getFontMetrics();
+        graphics.setColor(color);
+        graphics.drawString(label, left + (cellSize - metrics.stringWidth(label)) / 2,
+                (cellSize - metrics.getHeight()) / 2 + metrics.getAscent());
+    }
+
+    // An image in the screen's format when there is one, so copying sprites needs no conversion.
+    private static BufferedImage createImage(int width, int height) {
+        if (!GraphicsEnvironment.isHeadless()) {
+            return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                    .getDefaultConfiguration().createCompatibleImage(width, height, Transparency.OPAQUE);
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    }
+}
@@ -1,5 +1,6 @@
 package com.mlpinit.views;
 
+import com.mlpinit.models.GameMode;
 import rx.Observable;
 import rx.observables.SwingObservable;
 
@@ -9,9 +10,9 @@ import java.awt.event.MouseEvent;
 
 public class OptionsFrame extends JFrame {
 
-    private final static Integer[] beginnerMode = {8, 8, 10};
-    private final static Integer[] intermediateMode = {16, 16, 40};
-    private final static Integer[] expertMode = {16, 30, 99};
+    private final static Integer[] beginnerMode = GameMode.BEGINNER.toSettings();
+    private final static Integer[] intermediateMode = GameMode.INTERMEDIATE.toSettings();
+    private final static Integer[] expertMode = GameMode.EXPERT.toSettings();
 
     public Observable<Integer[]> gameModeObservable;
 
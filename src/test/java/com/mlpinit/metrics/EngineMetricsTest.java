@@ -0,0 +1,44 @@
+package com.mlpinit.metrics;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.BoardAction;
+import com.mlpinit.models.BoardRequest;
+import com.mlpinit.models.Coordinate;
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class EngineMetricsTest {
+
+    @Test
+    public void testThatBoardRequestsAreRecorded() {
+        EngineMetricsSnapshot before = EngineMetrics.get().snapshot();
+        Board board = new Board(50, 50, 10, 3);
+        board.boardUpdateObservable.subscribe(update -> { });
+        board.openCellObservable.subscribe(cell -> { });
+        board.execute(new BoardRequest(new Coordinate(25, 25), BoardAction.OPEN));
+        board.execute(new BoardRequest(new Coordinate(0, 0), BoardAction.MARK));
+        EngineMetricsSnapshot after = EngineMetrics.get().snapshot();
+
+        assertEquals(1, after.getGamesStarted() - before.getGamesStarted());
+        assertEquals(1, after.getGenerationTime().getCount() - before.getGenerationTime().getCount());
+        assertEquals(1, after.getExecuteLatency(BoardAction.OPEN).getCount() -
+                before.getExecuteLatency(BoardAction.OPEN).getCount());
+        assertEquals(2, after.getRequests() - before.getRequests());
+        assertEquals(1, after.getCascadeSizes().getCount() - before.getCascadeSizes().getCount());
+        // the first click on a sparse board opens a large region, which is one batch plus one event per cell
+        assertEquals(true, after.getEventsPerRequest().getMax() > 1);
+    }
+
+    @Test
+    public void testThatTheMBeanIsPublished() throws Exception {
+        EngineMetrics.get().register();
+        EngineMetrics.get().register();
+        Object started = ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName(EngineMetrics.OBJECT_NAME), "GamesStarted");
+        assertEquals(EngineMetrics.get().getGamesStarted(), started);
+    }
+}
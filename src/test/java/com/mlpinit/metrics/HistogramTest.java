@@ -0,0 +1,67 @@
+package com.mlpinit.metrics;
+
+import org.junit.Test;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class HistogramTest {
+
+    @Test
+    public void testThatBucketsCoverTheirValues() {
+        for (long value : new long[]{0, 1, 15, 16, 17, 31, 32, 1000, 123456789, Long.MAX_VALUE}) {
+            int bucket = Histogram.bucket(value);
+            assertEquals("Value " + value, true, Histogram.lowestValue(bucket) <= value);
+            assertEquals("Value " + value, true, Histogram.highestValue(bucket) >= value);
+            assertEquals("Value " + value, true, bucket < Histogram.BUCKETS);
+        }
+        assertEquals(Histogram.BUCKETS - 1, Histogram.bucket(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testThatPercentilesStayWithinTheBucketPrecision() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 10000; value++) histogram.record(value);
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(10000, snapshot.getCount());
+        assertEquals(5000.5, snapshot.getMean(), 1e-9);
+        assertEquals(10000, snapshot.getMax());
+        assertEquals(5000, snapshot.getValueAtPercentile(50), 5000 / Histogram.SUB_BUCKETS);
+        assertEquals(9900, snapshot.getValueAtPercentile(99), 9900 / Histogram.SUB_BUCKETS);
+        assertEquals(10000, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testThatRecordingFromManyThreadsLosesNothing() throws InterruptedException {
+        Histogram histogram = new Histogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100000; i++) histogram.record(i % 100);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        assertEquals(400000, histogram.snapshot().getCount());
+    }
+
+    @Test
+    public void testThatSnapshotsAddUpEveryStripe() throws InterruptedException {
+        Histogram histogram = new Histogram();
+        Thread[] threads = new Thread[2 * Histogram.STRIPES];
+        for (int t = 0; t < threads.length; t++) {
+            long value = 1000 * (t + 1);
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) histogram.record(value);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        HistogramSnapshot snapshot = histogram.snapshot();
+        assertEquals(1000L * threads.length, snapshot.getCount());
+        assertEquals(1000L * threads.length, snapshot.getMax());
+        // every thread recorded one value, the lowest one covers the first share of the recordings
+        assertEquals(1000, snapshot.getValueAtPercentile(100.0 / threads.length), 1000 / Histogram.SUB_BUCKETS);
+        histogram.reset();
+        assertEquals(0, histogram.snapshot().getCount());
+    }
+}
@@ -121,4 +121,25 @@ public class BoardActionInterpreterTest {
         if (!boardRequest.getCoordinate().toString().equals(coordinate.toString())) return false;
         return true;
     }
+
+    @Test
+    public void eachInterpreterHasItsOwnSubscribers() {
+        TestSubscriber<BoardRequest> first = TestSubscriber.create();
+        BoardActionInterpreter.create().boardRequestObservable.subscribe(first);
+        BoardActionInterpreter interpreter = BoardActionInterpreter.create();
+        interpreter.addEvent(new MouseButtonEvent(coordinate, MouseEvent.BUTTON1, MouseEvent.MOUSE_PRESSED));
+        interpreter.addEvent(new MouseButtonEvent(coordinate, MouseEvent.BUTTON1, MouseEvent.MOUSE_RELEASED));
+        first.assertNoValues();
+    }
+
+    @Test
+    public void resetForgetsAPressInProgress() {
+        TestSubscriber<BoardRequest> subscriber = TestSubscriber.create();
+        BoardActionInterpreter interpreter = BoardActionInterpreter.create();
+        interpreter.boardRequestObservable.subscribe(subscriber);
+        interpreter.addEvent(new MouseButtonEvent(coordinate, MouseEvent.BUTTON1, MouseEvent.MOUSE_PRESSED));
+        interpreter.reset();
+        interpreter.addEvent(new MouseButtonEvent(coordinate, MouseEvent.BUTTON1, MouseEvent.MOUSE_RELEASED));
+        subscriber.assertNoValues();
+    }
 }
@@ -0,0 +1,81 @@
+package com.mlpinit.models;
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static junit.framework.TestCase.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BoardGeneratorTest {
+    private BoardGenerator generator = new BoardGenerator();
+
+    @Test
+    public void testThatParallelAndSequentialGenerationProduceTheSameBoard() {
+        int height = 700;
+        int width = 450;
+        int nrOfMines = 60000;
+        int firstClick = 350 * width + 200;
+        CellGrid sequential = new CellGrid(height, width);
+        CellGrid parallel = new CellGrid(height, width);
+        generator.writeCounts(generator.placeMines(height, width, nrOfMines, 21, firstClick, false), sequential, false);
+        generator.writeCounts(generator.placeMines(height, width, nrOfMines, 21, firstClick, true), parallel, true);
+        int mines = 0;
+        for (int position = 0; position < sequential.size(); position++) {
+            assertEquals(sequential.getValue(position), parallel.getValue(position));
+            if (sequential.isMine(position)) mines++;
+        }
+        assertEquals(nrOfMines, mines);
+        assertTrue(!sequential.isMine(firstClick));
+    }
+
+    @Test
+    public void testThatEveryCellButTheFirstClickCanHoldAMine() {
+        CellGrid grid = new CellGrid(130, 3);
+        generator.generate(grid, 130 * 3 - 1, 4, 0);
+        assertEquals(3, grid.getValue(0));
+        for (int position = 1; position < grid.size(); position++) assertTrue(grid.isMine(position));
+    }
+
+    @Test
+    public void testThatEveryCellCanHoldAMineWithoutAFirstClick() {
+        CellGrid grid = new CellGrid(130, 3);
+        generator.generate(grid, 130 * 3, 4, -1);
+        for (int position = 0; position < grid.size(); position++) assertTrue(grid.isMine(position));
+    }
+
+    @Test
+    public void testThatBandsGetTheirShareOfTheMines() {
+        int height = 640;
+        int width = 100;
+        int nrOfMines = 16000;
+        int[] rowMines = new int[height];
+        int boards = 20;
+        for (int seed = 0; seed < boards; seed++) {
+            MineField mineField = generator.placeMines(height, width, nrOfMines, seed, -1, false);
+            for (int position = 0; position < height * width; position++) {
+                if (mineField.isMine(position)) rowMines[position / width]++;
+            }
+        }
+        // a quarter of every band, the standard deviation summed over all boards is about 150 mines
+        for (int band = 0; band < height / BoardGenerator.BAND_ROWS; band++) {
+            int mines = 0;
+            for (int row = band * BoardGenerator.BAND_ROWS; row < (band + 1) * BoardGenerator.BAND_ROWS; row++) {
+                mines += rowMines[row];
+            }
+            assertTrue("band " + band + " got " + mines, Math.abs(mines - 32000) < 600);
+        }
+    }
+
+    @Test
+    public void testThatHypergeometricDrawsHaveTheExpectedMean() {
+        SplittableRandom random = new SplittableRandom(5);
+        long total = 0;
+        int draws = 20000;
+        for (int i = 0; i < draws; i++) total += BoardGenerator.hypergeometric(1000000, 300000, 6400, random);
+        // mean 1920, the standard error of the average is about 0.26
+        assertEquals(1920.0, (double) total / draws, 1.5);
+        assertEquals(5, BoardGenerator.hypergeometric(10, 5, 10, random));
+        assertEquals(0, BoardGenerator.hypergeometric(10, 0, 7, random));
+    }
+}
@@ -66,6 +66,31 @@ public class BoardTest {
         assertEquals(0, cellIsAMineCounter);
     }
 
+    @Test
+    public void testThatTheSameSeedGeneratesTheSameBoard() {
+        Board first = new Board(height, width, nrOfMines, 42);
+        Board second = new Board(height, width, nrOfMines, 42);
+        first.open(row, column);
+        second.open(row, column);
+        assertEquals(first.toString(), second.toString());
+    }
+
+    @Test
+    public void testThatDenseBoardsKeepTheFirstClickFree() {
+        Board board = new Board(10, 10, 99, 7);
+        board.open(5, 5);
+        Cell[][] cells = board.getBoard();
+        int counter = 0;
+        for (Cell[] cellRow : cells) {
+            for (Cell cell : cellRow) {
+                if (cell.isMine()) counter++;
+            }
+        }
+        assertEquals(99, counter);
+        assertTrue(cells[5][5].isOpened());
+        assertEquals(8, cells[5][5].getValue());
+    }
+
     @Test
     public void testOpeningMineEndsTheGame() {
         TestSubscriber<Cell> subscriber = TestSubscriber.create();
@@ -129,6 +154,22 @@ public class BoardTest {
         assertEquals(40, openedCellsCounter);
     }
 
+    @Test
+    public void testOpeningLargeEmptyRegionDoesNotOverflowTheStack() {
+        int size = 1000;
+        Board board = new Board(size, size, 0);
+        Cell[][] cells = new Cell[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                cells[i][j] = new Cell(new Coordinate(i, j), Cell.EMPTY);
+            }
+        }
+        board.setBoard(cells);
+        board.open(size / 2, size / 2);
+        assertTrue(cells[0][0].isOpened());
+        assertTrue(cells[size - 1][size - 1].isOpened());
+    }
+
     @Test
     public void testThatItPublishesOpenedCells() {
         TestSubscriber<Cell> subscriber = new TestSubscriber<>();
@@ -140,6 +181,40 @@ public class BoardTest {
                 cells[1][6], cells[1][3], cells[1][2], cells[2][2], cells[2][3], cells[2][4]);
     }
 
+    @Test
+    public void testStatsTrackOpenedCellsAndMarks() {
+        Cell[][] cells = loadCellsFromTemplate();
+        board.setBoard(cells);
+        int closedSafeCells = board.getStats().getClosedSafeCells();
+        board.open(0, 3);
+        board.toggleMark(0, 0);
+        board.toggleMark(1, 0);
+        BoardStats stats = board.getStats();
+        assertEquals(closedSafeCells - 13, stats.getClosedSafeCells());
+        assertEquals(1, stats.getCorrectMarks());
+        assertEquals(1, stats.getWrongMarks());
+        board.toggleMark(1, 0);
+        assertEquals(0, board.getStats().getWrongMarks());
+    }
+
+    @Test
+    public void testThatItPublishesOneUpdatePerRequest() {
+        TestSubscriber<BoardUpdate> subscriber = new TestSubscriber<>();
+        board.boardUpdateObservable.subscribe(subscriber);
+        Cell[][] cells = loadCellsFromTemplate();
+        board.setBoard(cells);
+        board.execute(new BoardRequest(new Coordinate(0, 3), BoardAction.OPEN));
+        board.execute(new BoardRequest(new Coordinate(0, 0), BoardAction.MARK));
+        subscriber.assertValueCount(2);
+        BoardUpdate opened = subscriber.getOnNextEvents().get(0);
+        assertEquals(13, opened.getOpenedCount());
+        assertEquals(3, opened.getOpenedPosition(0));
+        assertEquals(0, opened.getOpenedValue(0));
+        BoardUpdate marked = subscriber.getOnNextEvents().get(1);
+        assertEquals(1, marked.getMarkedCount());
+        assertEquals(nrOfMines - 1, marked.getRemainingMines());
+    }
+
     @Test
     public void testToggleMarkTogglesCell() {
         TestSubscriber<Cell> subscriberOne = new TestSubscriber<>();
@@ -265,4 +340,68 @@ public class BoardTest {
         }
         return cells;
     }
+
+    @Test
+    public void testThatResetStartsANewGameOnTheSameStorage() {
+        Board board = new Board(16, 30, 99, 3);
+        board.open(8, 15);
+        board.toggleMark(0, 0);
+        TestSubscriber<Boolean> running = TestSubscriber.create();
+        TestSubscriber<BoardUpdate> updates = TestSubscriber.create();
+        board.gameIsRunningObservable.subscribe(running);
+        board.boardUpdateObservable.subscribe(updates);
+        board.reset(3);
+        running.assertValues(false);
+        assertEquals(true, updates.getOnNextEvents().get(0).isReset());
+        assertEquals(Board.State.NOT_STARTED, board.getState());
+        assertEquals(false, board.isMarked(0, 0));
+        assertEquals(Board.HIDDEN, board.getVisibleValue(8, 15));
+        assertEquals(99, board.getStats().getRemainingMines());
+
+        // the same seed and first click give the same game as a fresh board
+        Board fresh = new Board(16, 30, 99, 3);
+        board.open(8, 15);
+        fresh.open(8, 15);
+        assertEquals(fresh.toString(), board.toString());
+        assertEquals(fresh.getStats().toString(), board.getStats().toString());
+    }
+
+    @Test
+    public void testThatThreeBVCountsOpeningsAndIsolatedNumbers() {
+        int[] values = {1, Cell.MINE, 1, 0, 1, Cell.MINE, 1};
+        Cell[][] cells = new Cell[1][values.length];
+        for (int j = 0; j < values.length; j++) cells[0][j] = new Cell(new Coordinate(0, j), values[j]);
+        Board board = new Board(1, values.length, 2);
+        assertEquals(-1, board.getThreeBV());
+        board.setBoard(cells);
+        // the opening 1 0 1 in the middle and the two ones at the ends
+        assertEquals(3, board.getThreeBV());
+    }
+
+    @Test
+    public void testThatMovesAreCountedUntilTheGameEnds() {
+        Board board = new Board(16, 30, 99, 3);
+        board.execute(new BoardRequest(new Coordinate(8, 15), BoardAction.OPEN));
+        board.execute(new BoardRequest(new Coordinate(0, 0), BoardAction.MARK));
+        board.execute(new BoardRequest(new Coordinate(0, 0), BoardAction.MARK));
+        assertEquals(3, board.getMoves());
+        assertEquals(false, board.isGameWon());
+        board.reset();
+        assertEquals(0, board.getMoves());
+    }
+
+    @Test
+    public void testThatLoadingASnapshotRestoresTheGameInPlace() {
+        Board board = new Board(16, 30, 99, 11);
+        board.open(8, 15);
+        GameSnapshot opened = board.snapshot(0);
+        String expected = board.toString();
+        String expectedStats = board.getStats().toString();
+        board.toggleMark(0, 0);
+        board.open(15, 29);
+        board.load(opened);
+        assertEquals(expected, board.toString());
+        assertEquals(expectedStats, board.getStats().toString());
+        assertEquals(Board.State.STARTED, board.getState());
+    }
 }
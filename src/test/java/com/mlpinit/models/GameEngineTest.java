@@ -0,0 +1,109 @@
+package com.mlpinit.models;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class GameEngineTest {
+
+    @Test
+    public void testThatRequestsAreExecutedOnTheEngineThread() throws InterruptedException {
+        Board board = new Board(16, 30, 99, 7);
+        Thread[] executor = new Thread[1];
+        // subscribed before the engine, so it has run by the time the update reaches the ring
+        board.boardUpdateObservable.subscribe(update -> executor[0] = Thread.currentThread());
+        GameEngine engine = new GameEngine(board).start();
+        assertEquals(true, engine.submit(new BoardRequest(new Coordinate(8, 15), BoardAction.OPEN)));
+        int[] opened = new int[1];
+        waitFor(engine, 1, update -> opened[0] += update.getOpenedCount());
+        engine.stop();
+        assertEquals("minesweeper-engine", executor[0].getName());
+        assertEquals(board.getStats().getOpenedSafeCells(), opened[0]);
+    }
+
+    @Test
+    public void testThatSubmitDropsRequestsWhenTheQueueIsFull() {
+        Board board = new Board(16, 30, 99, 7);
+        // not started, nothing takes requests off the queue
+        GameEngine engine = new GameEngine(board, 2, 4);
+        BoardRequest request = new BoardRequest(new Coordinate(0, 0), BoardAction.MARK);
+        assertEquals(true, engine.submit(request));
+        assertEquals(true, engine.submit(request));
+        assertEquals(false, engine.submit(request));
+        assertEquals(1, engine.getRejectedRequests());
+        engine.stop();
+        assertEquals(false, engine.submit(request));
+    }
+
+    @Test
+    public void testThatInteractiveSubmitWaitsForRoomInTheQueue() throws InterruptedException {
+        Board board = new Board(16, 30, 99, 7);
+        GameEngine engine = new GameEngine(board, 1, 4);
+        BoardRequest request = new BoardRequest(new Coordinate(0, 0), BoardAction.MARK);
+        assertEquals(true, engine.submit(request));
+        // nothing takes requests yet, the wait runs out
+        assertEquals(false, engine.submit(request, 10, TimeUnit.MILLISECONDS));
+        assertEquals(1, engine.getRejectedRequests());
+        Thread starter = new Thread(() -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                return;
+            }
+            engine.start();
+        });
+        starter.start();
+        assertEquals(true, engine.submit(request, 5, TimeUnit.SECONDS));
+        starter.join();
+        engine.stop();
+        assertEquals(1, engine.getRejectedRequests());
+    }
+
+    private static void waitFor(GameEngine engine, int expected, Consumer<BoardUpdate> consumer)
+            throws InterruptedException {
+        int drained = 0;
+        long deadline = System.currentTimeMillis() + 5000;
+        while (drained < expected && System.currentTimeMillis() < deadline) {
+            drained += engine.getUpdates().drain(consumer);
+            Thread.sleep(1);
+        }
+        assertEquals(expected, drained);
+    }
+
+    @Test
+    public void testThatResetReachesTheRingAfterTheOldGame() throws InterruptedException {
+        Board board = new Board(16, 30, 99, 7);
+        GameEngine engine = new GameEngine(board).start();
+        engine.submit(new BoardRequest(new Coordinate(8, 15), BoardAction.OPEN));
+        waitFor(engine, 1, update -> assertEquals(false, update.isReset()));
+        engine.reset();
+        waitFor(engine, 1, update -> assertEquals(true, update.isReset()));
+        engine.stop();
+        assertEquals(Board.State.NOT_STARTED, board.getState());
+    }
+
+    @Test
+    public void testThatALoadedGameReachesTheRingWithEveryVisibleCell() throws Exception {
+        Board saved = new Board(16, 30, 99, 7);
+        saved.open(8, 15);
+        saved.toggleMark(0, 0);
+        GameSnapshot snapshot = saved.snapshot(4200);
+        Board board = new Board(16, 30, 99, 3);
+        GameEngine engine = new GameEngine(board).start();
+        Thread executor = engine.call(() -> {
+            board.load(snapshot);
+            return Thread.currentThread();
+        }).get();
+        BoardUpdate[] loaded = new BoardUpdate[1];
+        waitFor(engine, 1, update -> loaded[0] = update);
+        engine.stop();
+        assertEquals("minesweeper-engine", executor.getName());
+        assertEquals(true, loaded[0].isReset());
+        assertEquals(saved.getStats().getOpenedSafeCells(), loaded[0].getOpenedCount());
+        assertEquals(saved.getBoard()[0][0].isMarked() ? 1 : 0, loaded[0].getMarkedCount());
+        assertEquals(saved.getStats().getRemainingMines(), loaded[0].getRemainingMines());
+    }
+}
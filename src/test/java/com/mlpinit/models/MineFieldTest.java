@@ -0,0 +1,45 @@
+package com.mlpinit.models;
+
+import org.junit.Test;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class MineFieldTest {
+
+    @Test
+    public void testThatItPlacesTheRequestedNumberOfMines() {
+        MineField mineField = MineField.generate(40, 70, 500, 3, 0);
+        int counter = 0;
+        for (int position = 0; position < 40 * 70; position++) {
+            if (mineField.isMine(position)) counter++;
+        }
+        assertEquals(500, counter);
+        assertEquals(false, mineField.isMine(0));
+    }
+
+    @Test
+    public void testThatWrittenCountsMatchNeighbouringMines() {
+        int height = 37;
+        int width = 131;
+        MineField mineField = MineField.generate(height, width, 2000, 11, -1);
+        CellGrid grid = new CellGrid(height, width);
+        mineField.writeCounts(grid, 0, height);
+        for (int i = 0; i < height; i++) {
+            for (int j = 0; j < width; j++) {
+                int expected = mineField.isMine(i, j) ? Cell.MINE : countNeighbouringMines(mineField, i, j);
+                assertEquals("Value at " + i + "," + j, expected, grid.getValue(grid.position(i, j)));
+            }
+        }
+    }
+
+    private int countNeighbouringMines(MineField mineField, int x, int y) {
+        int counter = 0;
+        for (int i = x - 1; i <= x + 1; i++) {
+            for (int j = y - 1; j <= y + 1; j++) {
+                if (i < 0 || j < 0 || i >= mineField.getHeight() || j >= mineField.getWidth()) continue;
+                if ((i != x || j != y) && mineField.isMine(i, j)) counter++;
+            }
+        }
+        return counter;
+    }
+}
@@ -0,0 +1,75 @@
+package com.mlpinit.models;
+
+import org.junit.Test;
+import rx.schedulers.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class MinesweeperTimerTest {
+    private long now = 0;
+
+    @Test
+    public void testThatPausedTimeIsNotCounted() {
+        MinesweeperTimer timer = new MinesweeperTimer(() -> now, Schedulers.immediate());
+        timer.startTimer();
+        now += TimeUnit.MILLISECONDS.toNanos(1500);
+        timer.pause();
+        now += TimeUnit.SECONDS.toNanos(10);
+        assertEquals(1500, timer.getElapsedMillis());
+        timer.resume();
+        now += TimeUnit.MICROSECONDS.toNanos(2750);
+        timer.stopTimer();
+        now += TimeUnit.SECONDS.toNanos(10);
+        assertEquals(1502, timer.getElapsedMillis());
+        assertEquals(false, timer.isRunning());
+    }
+
+    @Test
+    public void testThatStartingAgainCountsFromZero() {
+        MinesweeperTimer timer = new MinesweeperTimer(() -> now, Schedulers.immediate());
+        timer.startTimer();
+        now += TimeUnit.SECONDS.toNanos(3);
+        timer.stopTimer();
+        timer.startTimer();
+        now += TimeUnit.MILLISECONDS.toNanos(20);
+        assertEquals(20, timer.getElapsedMillis());
+        timer.stopTimer();
+    }
+
+    @Test
+    public void testThatTicksOnlyPublishChangedSeconds() {
+        MinesweeperTimer timer = new MinesweeperTimer(() -> now, Schedulers.immediate());
+        // seconds are delivered on the calling thread, so they can be checked as soon as tick returns
+        List<Integer> seconds = new ArrayList<>();
+        timer.elapsedTimeObservable.subscribe(seconds::add);
+        timer.startTimer();
+        for (int i = 0; i < 10; i++) {
+            now += TimeUnit.MILLISECONDS.toNanos(250);
+            timer.tick();
+        }
+        timer.stopTimer();
+        assertEquals("[0, 1, 2]", seconds.toString());
+    }
+
+    @Test
+    public void testThatATickCancelledByPauseAndResumeDoesNotStartASecondChain() {
+        MinesweeperTimer timer = new MinesweeperTimer(() -> now, Schedulers.immediate());
+        List<Integer> seconds = new ArrayList<>();
+        timer.elapsedTimeObservable.subscribe(seconds::add);
+        timer.startTimer();
+        // the tick scheduled by the start, as if it was already waiting for the lock when it got cancelled
+        long stale = timer.generation;
+        timer.pause();
+        timer.resume();
+        now += TimeUnit.MILLISECONDS.toNanos(1500);
+        timer.tick(stale);
+        assertEquals("[0]", seconds.toString());
+        timer.tick(timer.generation);
+        timer.stopTimer();
+        assertEquals("[0, 1]", seconds.toString());
+    }
+}
@@ -0,0 +1,70 @@
+package com.mlpinit.models;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class UpdateRingBufferTest {
+
+    @Test
+    public void testThatCapacityIsRoundedToAPowerOfTwo() {
+        assertEquals(8, new UpdateRingBuffer(5).capacity());
+        assertEquals(8, new UpdateRingBuffer(8).capacity());
+        assertEquals(1, new UpdateRingBuffer(1).capacity());
+    }
+
+    @Test
+    public void testThatUpdatesAreDrainedInOrderAcrossTheEnd() {
+        UpdateRingBuffer ring = new UpdateRingBuffer(4);
+        List<BoardUpdate> published = new ArrayList<>();
+        List<BoardUpdate> drained = new ArrayList<>();
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 3; i++) {
+                BoardUpdate update = update();
+                published.add(update);
+                assertEquals(true, ring.offer(update));
+            }
+            assertEquals(3, ring.drain(drained::add));
+            assertEquals(true, ring.isEmpty());
+        }
+        assertEquals(published, drained);
+    }
+
+    @Test
+    public void testThatOfferFailsWhenFull() {
+        UpdateRingBuffer ring = new UpdateRingBuffer(2);
+        assertEquals(true, ring.offer(update()));
+        assertEquals(true, ring.offer(update()));
+        assertEquals(false, ring.offer(update()));
+        assertEquals(2, ring.size());
+        ring.drain(update -> { });
+        assertEquals(true, ring.offer(update()));
+    }
+
+    @Test
+    public void testThatPutWaitsForTheConsumer() throws InterruptedException {
+        UpdateRingBuffer ring = new UpdateRingBuffer(2);
+        int total = 10000;
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < total; i++) ring.put(update());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        producer.start();
+        int drained = 0;
+        while (drained < total) drained += ring.drain(update -> { });
+        producer.join();
+        assertEquals(total, drained);
+    }
+
+    private static BoardUpdate update() {
+        BoardUpdate.Builder builder = new BoardUpdate.Builder();
+        builder.clear(1);
+        return builder.build(null);
+    }
+}
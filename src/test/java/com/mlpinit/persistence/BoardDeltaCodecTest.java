@@ -0,0 +1,85 @@
+package com.mlpinit.persistence;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.BoardAction;
+import com.mlpinit.models.BoardRequest;
+import com.mlpinit.models.BoardUpdate;
+import com.mlpinit.models.CellGrid;
+import com.mlpinit.models.Coordinate;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.SplittableRandom;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class BoardDeltaCodecTest {
+
+    @Test
+    public void testThatDecodedDeltasMirrorTheBoard() {
+        SplittableRandom random = new SplittableRandom(5);
+        BoardDeltaCodec encoder = new BoardDeltaCodec();
+        BoardDeltaCodec decoder = new BoardDeltaCodec();
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        for (int game = 0; game < 20; game++) {
+            Board board = new Board(16, 30, 99, game);
+            CellGrid mirror = new CellGrid(16, 30);
+            board.boardUpdateObservable.subscribe(update -> {
+                buffer.clear();
+                encoder.encode(update, buffer);
+                buffer.flip();
+                decoder.decode(buffer, mirror);
+                assertEquals(0, buffer.remaining());
+                assertEquals(update.getRemainingMines(), decoder.getRemainingMines());
+                assertEquals(update.isGameLost(), decoder.isGameLost());
+                assertEquals(update.isGameWon(), decoder.isGameWon());
+            });
+            board.execute(new BoardRequest(new Coordinate(8, 15), BoardAction.OPEN));
+            while (board.getState() != Board.State.GAME_OVER) {
+                BoardAction action = random.nextInt(4) == 0 ? BoardAction.MARK : BoardAction.OPEN;
+                board.execute(new BoardRequest(new Coordinate(random.nextInt(16), random.nextInt(30)), action));
+            }
+            for (int x = 0; x < 16; x++) {
+                for (int y = 0; y < 30; y++) {
+                    int position = mirror.position(x, y);
+                    int visible = mirror.isOpened(position) ? mirror.getValue(position) : Board.HIDDEN;
+                    assertEquals("Cell " + x + "," + y, board.getVisibleValue(x, y), visible);
+                    assertEquals(board.isMarked(x, y), mirror.isMarked(position));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testThatACascadeFitsInAFewHundredBytes() {
+        Board board = new Board(256, 256, 200, 11);
+        BoardUpdate[] cascade = new BoardUpdate[1];
+        board.boardUpdateObservable.subscribe(update -> cascade[0] = update);
+        board.execute(new BoardRequest(new Coordinate(128, 128), BoardAction.OPEN));
+        ByteBuffer buffer = ByteBuffer.allocate(BoardDeltaCodec.maxEncodedSize(cascade[0]));
+        int bytes = new BoardDeltaCodec().encode(cascade[0], buffer);
+        assertEquals(true, cascade[0].getOpenedCount() > 10000);
+        // a byte for every 16 opened cells at most
+        assertEquals("Encoded " + cascade[0].getOpenedCount() + " cells in " + bytes + " bytes",
+                true, bytes * 16 < cascade[0].getOpenedCount());
+    }
+
+    @Test
+    public void testThatAResetClearsTheMirror() {
+        Board board = new Board(16, 30, 99, 2);
+        CellGrid mirror = new CellGrid(16, 30);
+        BoardDeltaCodec codec = new BoardDeltaCodec();
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        board.boardUpdateObservable.subscribe(update -> {
+            buffer.clear();
+            codec.encode(update, buffer);
+            buffer.flip();
+            codec.decode(buffer, mirror);
+        });
+        board.execute(new BoardRequest(new Coordinate(8, 15), BoardAction.OPEN));
+        assertEquals(true, mirror.isOpened(mirror.position(8, 15)));
+        board.reset();
+        assertEquals(true, codec.isReset());
+        assertEquals(false, mirror.isOpened(mirror.position(8, 15)));
+    }
+}
@@ -0,0 +1,62 @@
+package com.mlpinit.persistence;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.GameSnapshot;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class GameFileTest {
+
+    @Test
+    public void testThatASavedGameIsRestoredCompletely() throws Exception {
+        Board board = new Board(300, 200, 9000, 17);
+        board.open(150, 100);
+        board.toggleMark(0, 0);
+        board.toggleMark(299, 199);
+        Path path = File.createTempFile("minesweeper", ".save").toPath();
+        try {
+            GameFile.saveAsync(path, board.snapshot(12345)).get();
+            GameSnapshot snapshot = GameFile.load(path);
+            Board restored = Board.restore(snapshot);
+            assertEquals(12345L, snapshot.getElapsedMillis());
+            assertEquals(board.getState(), restored.getState());
+            assertEquals(board.toString(), restored.toString());
+            assertEquals(board.getStats().toString(), restored.getStats().toString());
+            assertEquals(board.getSeed(), restored.getSeed());
+        } finally {
+            path.toFile().delete();
+        }
+    }
+
+    @Test
+    public void testThatCorruptHeadersAreRejected() throws Exception {
+        Board board = new Board(16, 30, 99, 17);
+        board.open(8, 15);
+        Path path = File.createTempFile("minesweeper", ".save").toPath();
+        try {
+            GameFile.save(path, board.snapshot(0));
+            byte[] saved = Files.readAllBytes(path);
+            // offsets of the height, the number of mines, the state and the cell count
+            int[][] corruptions = {{6, 0x7F}, {14, 0x7F}, {26, 7}, {39, 0x01}};
+            for (int[] corruption : corruptions) {
+                byte[] corrupt = saved.clone();
+                corrupt[corruption[0]] = (byte) corruption[1];
+                Files.write(path, corrupt);
+                try {
+                    GameFile.load(path);
+                    throw new AssertionError("Loaded a file corrupted at " + corruption[0]);
+                } catch (IOException expected) {
+                    // rejected
+                }
+            }
+        } finally {
+            path.toFile().delete();
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.mlpinit.persistence;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.BoardActionInterpreter;
+import com.mlpinit.models.BoardAction;
+import com.mlpinit.models.BoardRequest;
+import com.mlpinit.models.Coordinate;
+import com.mlpinit.models.MouseButtonEvent;
+import com.mlpinit.solver.NoGuessBoardGenerator;
+import org.junit.Test;
+
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class GameJournalTest {
+
+    @Test
+    public void testThatAReplayedJournalReproducesTheGame() throws Exception {
+        Board board = new Board(16, 30, 99, -8L);
+        GameJournal journal = GameJournal.forBoard(board);
+        BoardRequest[] requests = {
+                new BoardRequest(new Coordinate(8, 15), BoardAction.OPEN),
+                new BoardRequest(new Coordinate(0, 0), BoardAction.MARK),
+                new BoardRequest(new Coordinate(15, 29), BoardAction.OPEN),
+                new BoardRequest(new Coordinate(8, 15), BoardAction.OPEN_NEIGHBOURS)
+        };
+        for (BoardRequest request : requests) {
+            journal.append(request);
+            board.execute(request);
+        }
+        GameJournal loaded = GameJournal.fromByteArray(journal.toByteArray());
+        Board replayed = GameReplayer.replay(loaded);
+        assertEquals(4, loaded.size());
+        assertEquals(-8L, loaded.getSeed());
+        assertEquals(board.toString(), replayed.toString());
+        assertEquals(board.getState(), replayed.getState());
+        assertEquals(board.getStats().toString(), replayed.getStats().toString());
+    }
+
+    @Test
+    public void testThatRequestsWithoutAnActionAreNotRecorded() throws Exception {
+        GameJournal journal = GameJournal.forBoard(new Board(16, 30, 99, 1L));
+        BoardActionInterpreter interpreter = BoardActionInterpreter.create();
+        journal.recordFrom(interpreter.boardRequestObservable);
+        Coordinate coordinate = new Coordinate(3, 4);
+        interpreter.addEvent(new MouseButtonEvent(coordinate, MouseEvent.BUTTON2, MouseEvent.MOUSE_PRESSED));
+        interpreter.addEvent(new MouseButtonEvent(coordinate, MouseEvent.BUTTON2, MouseEvent.MOUSE_RELEASED));
+        interpreter.addEvent(new MouseButtonEvent(coordinate, MouseEvent.BUTTON1, MouseEvent.MOUSE_PRESSED));
+        interpreter.addEvent(new MouseButtonEvent(coordinate, MouseEvent.BUTTON1, MouseEvent.MOUSE_RELEASED));
+        assertEquals(1, journal.size());
+        GameJournal.Cursor cursor = journal.cursor();
+        assertEquals(true, cursor.next());
+        assertEquals(BoardAction.OPEN, cursor.getAction());
+        assertEquals(false, cursor.next());
+    }
+
+    @Test
+    public void testThatCorruptJournalsThrowIOException() throws Exception {
+        GameJournal journal = GameJournal.forBoard(new Board(16, 30, 99, 1L));
+        journal.append(new BoardRequest(new Coordinate(8, 15), BoardAction.OPEN));
+        byte[] bytes = journal.toByteArray();
+        assertIOException(Arrays.copyOf(bytes, 3));
+        // the last byte is the y coordinate 15, an unknown action in its place
+        byte[] badAction = bytes.clone();
+        badAction[bytes.length - 3] = 100;
+        assertIOException(badAction);
+    }
+
+    @Test
+    public void testThatAJournalFileKeepsEveryEntryUpToACrash() throws Exception {
+        Board board = new Board(16, 30, 99, 5L);
+        Path path = File.createTempFile("minesweeper", ".journal").toPath();
+        try (GameJournal journal = GameJournal.open(path, board)) {
+            BoardRequest[] requests = {
+                    new BoardRequest(new Coordinate(8, 15), BoardAction.OPEN),
+                    new BoardRequest(new Coordinate(0, 0), BoardAction.MARK),
+                    new BoardRequest(new Coordinate(0, 0), BoardAction.MARK)
+            };
+            for (BoardRequest request : requests) {
+                journal.append(request);
+                board.execute(request);
+                // every entry is on disk as soon as it is recorded
+                assertEquals(journal.toByteArray().length, Files.size(path));
+            }
+            // a crash while the last entry was written
+            byte[] written = Files.readAllBytes(path);
+            GameJournal recovered = GameJournal.fromByteArray(Arrays.copyOf(written, written.length - 1));
+            assertEquals(2, recovered.size());
+            Board replayed = GameReplayer.replay(recovered);
+            assertEquals(true, replayed.getBoard()[0][0].isMarked());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void testThatNoGuessGamesReplayOnTheSameGenerator() throws Exception {
+        Board board = new Board(16, 30, 99, 12L);
+        board.setGenerator(new NoGuessBoardGenerator());
+        GameJournal journal = GameJournal.forBoard(board);
+        BoardRequest open = new BoardRequest(new Coordinate(8, 15), BoardAction.OPEN);
+        journal.append(open);
+        board.execute(open);
+        GameJournal loaded = GameJournal.fromByteArray(journal.toByteArray());
+        assertEquals(GameJournal.Generator.NO_GUESS, loaded.getGenerator());
+        assertEquals(board.toString(), GameReplayer.replay(loaded).toString());
+        try {
+            GameReplayer.replay(loaded, new Board(16, 30, 99, 12L), false);
+            throw new AssertionError("Replayed a no-guess journal on a random board");
+        } catch (IllegalArgumentException expected) {
+            // refused
+        }
+    }
+
+    private static void assertIOException(byte[] bytes) {
+        try {
+            GameJournal.Cursor cursor = GameJournal.fromByteArray(bytes).cursor();
+            while (cursor.next()) {
+                // reads every entry
+            }
+        } catch (IOException e) {
+            return;
+        }
+        throw new AssertionError("Expected an IOException");
+    }
+}
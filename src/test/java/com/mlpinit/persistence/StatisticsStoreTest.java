@@ -0,0 +1,113 @@
+package com.mlpinit.persistence;
+
+import com.mlpinit.models.GameMode;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class StatisticsStoreTest {
+
+    @Test
+    public void testThatStatisticsAreRebuiltFromTheLog() throws Exception {
+        Path path = File.createTempFile("minesweeper", ".statistics").toPath();
+        Files.delete(path);
+        try (StatisticsStore store = StatisticsStore.open(path, 3)) {
+            long[] times = {9000, 4000, 7000, 2000, 5000};
+            for (int i = 0; i < times.length; i++) store.record(expert(times[i], true, i));
+            store.record(expert(1000, false, 5));
+            store.record(new GameRecord(GameMode.BEGINNER, 8, 8, 10, 3000, 12, true, 9, 6));
+        }
+        try (StatisticsStore store = StatisticsStore.open(path, 3)) {
+            assertEquals(7, store.getRecords());
+            ModeStatistics expert = store.getStatistics(GameMode.EXPERT);
+            assertEquals(6, expert.getGames());
+            assertEquals(5, expert.getWins());
+            assertEquals(2000, expert.getBestMillis());
+            assertEquals(5400.0, expert.getAverageWinMillis());
+            List<GameRecord> fastest = store.getFastestWins(GameMode.EXPERT);
+            assertEquals(3, fastest.size());
+            assertEquals(2000, fastest.get(0).getElapsedMillis());
+            assertEquals(4000, fastest.get(1).getElapsedMillis());
+            assertEquals(5000, fastest.get(2).getElapsedMillis());
+            assertEquals(150, fastest.get(0).getThreeBV());
+            assertEquals(1, store.getStatistics(GameMode.BEGINNER).getGames());
+            assertEquals(0, store.getStatistics(GameMode.CUSTOM).getGames());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void testThatATornTailIsCutOff() throws Exception {
+        Path path = File.createTempFile("minesweeper", ".statistics").toPath();
+        Files.delete(path);
+        try (StatisticsStore store = StatisticsStore.open(path)) {
+            store.record(expert(4000, true, 1));
+            store.record(expert(3000, true, 2));
+        }
+        long size = Files.size(path);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            // corrupt the last record and leave half of a third one
+            file.seek(size - 1);
+            int last = file.read();
+            file.seek(size - 1);
+            file.write(last ^ 0xFF);
+            file.seek(size);
+            file.write(new byte[StatisticsStore.RECORD_BYTES / 2]);
+        }
+        try (StatisticsStore store = StatisticsStore.open(path)) {
+            assertEquals(1, store.getRecords());
+            assertEquals(4000, store.getStatistics(GameMode.EXPERT).getBestMillis());
+            store.record(expert(2000, true, 3));
+        }
+        try (StatisticsStore store = StatisticsStore.open(path)) {
+            assertEquals(2, store.getRecords());
+            assertEquals(2000, store.getStatistics(GameMode.EXPERT).getBestMillis());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    @Test
+    public void testThatACorruptRecordIsSkippedWithoutLosingTheOthers() throws Exception {
+        Path path = File.createTempFile("minesweeper", ".statistics").toPath();
+        Files.delete(path);
+        try (StatisticsStore store = StatisticsStore.open(path)) {
+            for (int i = 0; i < 5; i++) store.record(expert(1000 * (i + 1), true, i));
+        }
+        long size = Files.size(path);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            // flip a byte in the elapsed time of the second record, the fastest game left is the first one
+            long offset = size - 4 * StatisticsStore.RECORD_BYTES + 12;
+            file.seek(offset);
+            int value = file.read();
+            file.seek(offset);
+            file.write(value ^ 0xFF);
+        }
+        try (StatisticsStore store = StatisticsStore.open(path)) {
+            assertEquals(size, Files.size(path));
+            assertEquals(4, store.getRecords());
+            assertEquals(1000, store.getStatistics(GameMode.EXPERT).getBestMillis());
+            List<GameRecord> fastest = store.getFastestWins(GameMode.EXPERT);
+            assertEquals(3000, fastest.get(1).getElapsedMillis());
+            assertEquals(2, fastest.get(1).getFinishedAtMillis());
+            store.record(expert(500, true, 5));
+        }
+        try (StatisticsStore store = StatisticsStore.open(path)) {
+            assertEquals(5, store.getRecords());
+            assertEquals(500, store.getStatistics(GameMode.EXPERT).getBestMillis());
+        } finally {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private static GameRecord expert(long millis, boolean won, long finishedAt) {
+        return new GameRecord(GameMode.EXPERT, 16, 30, 99, millis, 100, won, 150, finishedAt);
+    }
+}
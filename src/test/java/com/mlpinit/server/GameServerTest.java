@@ -0,0 +1,121 @@
+package com.mlpinit.server;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.BoardAction;
+import com.mlpinit.models.BoardRequest;
+import com.mlpinit.models.BoardUpdate;
+import com.mlpinit.models.Coordinate;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class GameServerTest {
+    private GameServer server;
+    private GameClient client;
+
+    @Before
+    public void setup() throws Exception {
+        server = new GameServer(0, 2);
+        client = new GameClient(server.start());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        client.close();
+        server.close();
+    }
+
+    @Test
+    public void testThatMovesMatchALocalBoard() throws Exception {
+        int session = client.newGame(16, 30, 99, 42);
+        Board board = new Board(16, 30, 99, 42);
+        BoardUpdate[] local = new BoardUpdate[1];
+        board.boardUpdateObservable.subscribe(update -> local[0] = update);
+
+        int[][] moves = {{8, 15}, {0, 0}, {15, 29}, {3, 7}};
+        for (int[] move : moves) {
+            MoveResponse response = client.move(session, BoardAction.OPEN, move[0], move[1]);
+            board.execute(new BoardRequest(new Coordinate(move[0], move[1]), BoardAction.OPEN));
+            assertEquals(Protocol.OK, response.getStatus());
+            assertEquals(board.getState(), response.getState());
+            assertEquals(local[0].getOpenedCount(), response.getOpenedCount());
+            for (int i = 0; i < response.getOpenedCount(); i++) {
+                assertEquals(local[0].getOpenedPosition(i), response.getOpenedPosition(i));
+                assertEquals(local[0].getOpenedValue(i), response.getOpenedValue(i));
+            }
+            assertEquals(local[0].getMineCount(), response.getMineCount());
+            assertEquals(local[0].isGameLost(), response.isGameLost());
+        }
+    }
+
+    @Test
+    public void testThatSessionsAreIndependent() throws Exception {
+        int first = client.newGame(16, 30, 99, 1);
+        int second = client.newGame(16, 30, 99, 1);
+        assertEquals(2, server.getSessionCount());
+        // a shared board would have nothing left to open the second time
+        int opened = client.move(first, BoardAction.OPEN, 8, 15).getOpenedCount();
+        assertEquals(true, opened > 0);
+        assertEquals(opened, client.move(second, BoardAction.OPEN, 8, 15).getOpenedCount());
+        assertEquals(Protocol.OK, client.closeGame(first));
+        assertEquals(Protocol.UNKNOWN_SESSION, client.move(first, BoardAction.OPEN, 0, 0).getStatus());
+        assertEquals(1, server.getSessionCount());
+    }
+
+    @Test
+    public void testThatInvalidRequestsAreRefused() throws Exception {
+        assertEquals(-1, client.newGame(16, 30, 480, 1));
+        int session = client.newGame(16, 30, 99, 1);
+        assertEquals(Protocol.BAD_REQUEST, client.move(session, BoardAction.OPEN, 16, 0).getStatus());
+        assertEquals(Protocol.OK, client.move(session, BoardAction.OPEN, 15, 29).getStatus());
+    }
+
+    @Test
+    public void testThatRequestsOfTheWrongLengthAreRefused() throws Exception {
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                server.getPort()))) {
+            // a close request with a byte too many, followed by a valid one
+            ByteBuffer requests = ByteBuffer.allocate(2 * Protocol.LENGTH_BYTES + 2 * Protocol.CLOSE_BYTES + 1);
+            requests.putInt(Protocol.CLOSE_BYTES + 1).put(Protocol.CLOSE).putInt(0).put((byte) 0);
+            requests.putInt(Protocol.CLOSE_BYTES).put(Protocol.CLOSE).putInt(0);
+            requests.flip();
+            while (requests.hasRemaining()) channel.write(requests);
+            ByteBuffer responses = ByteBuffer.allocate(2 * (Protocol.LENGTH_BYTES + 1));
+            while (responses.hasRemaining()) channel.read(responses);
+            assertEquals(1, responses.getInt(0));
+            assertEquals(Protocol.BAD_REQUEST, responses.get(4));
+            assertEquals(Protocol.UNKNOWN_SESSION, responses.get(9));
+        }
+    }
+
+    @Test
+    public void testThatPipelinedCascadesAreAllAnswered() throws Exception {
+        // every cascade answers with megabytes, far more than the server keeps pending before it stops reading
+        int games = 6;
+        int[] sessions = new int[games];
+        for (int i = 0; i < games; i++) sessions[i] = client.newGame(1024, 1024, 100, i);
+        for (int session : sessions) client.sendMove(session, BoardAction.OPEN, 512, 512);
+        for (int i = 0; i < games; i++) {
+            MoveResponse response = client.receiveMove();
+            assertEquals(Protocol.OK, response.getStatus());
+            assertEquals(true, response.getOpenedCount() > 1024 * 512);
+        }
+        assertEquals(Protocol.OK, client.closeGame(sessions[0]));
+    }
+
+    @Test
+    public void testThatTheLoadGeneratorPlaysGames() throws Exception {
+        LoadGenerator generator = new LoadGenerator(server.getPort(), 2, 50, 9, 9, 10);
+        long moves = generator.run(300);
+        assertEquals(true, moves > 0);
+        assertEquals(true, generator.getGames() > 0);
+        assertEquals(0, server.getSessionCount());
+    }
+}
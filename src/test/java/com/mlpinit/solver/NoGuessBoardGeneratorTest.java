@@ -0,0 +1,47 @@
+package com.mlpinit.solver;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.BoardAction;
+import com.mlpinit.models.BoardRequest;
+import com.mlpinit.models.Cell;
+import com.mlpinit.models.Coordinate;
+import org.junit.Test;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class NoGuessBoardGeneratorTest {
+
+    @Test
+    public void testThatExpertBoardsAreSolvedWithoutGuessing() {
+        NoGuessBoardGenerator generator = new NoGuessBoardGenerator();
+        for (long seed = 1; seed <= 20; seed++) {
+            Board board = new Board(16, 30, 99, seed);
+            board.setGenerator(generator);
+            new AutoPlayer(board).play();
+            assertEquals("Seed " + seed, Board.State.GAME_OVER, board.getState());
+            assertEquals("Seed " + seed, 0, board.getStats().getClosedSafeCells());
+            assertEquals(true, generator.getLastStats().isNoGuess());
+            assertEquals(true, generator.getLastStats().getCandidates() >= 1);
+        }
+    }
+
+    @Test
+    public void testThatTheFirstClickStartsACascade() {
+        Board board = new Board(16, 30, 99, 4);
+        board.setGenerator(new NoGuessBoardGenerator());
+        board.execute(new BoardRequest(new Coordinate(0, 29), BoardAction.OPEN));
+        assertEquals(Cell.EMPTY, board.getVisibleValue(0, 29));
+        assertEquals(true, board.getStats().getOpenedSafeCells() > 1);
+    }
+
+    @Test
+    public void testThatTheBoardOnlyDependsOnTheSeed() {
+        Board sequential = new Board(16, 30, 99, 9);
+        sequential.setGenerator(new NoGuessBoardGenerator(false));
+        Board parallel = new Board(16, 30, 99, 9);
+        parallel.setGenerator(new NoGuessBoardGenerator(true));
+        sequential.open(8, 15);
+        parallel.open(8, 15);
+        assertEquals(sequential.toString(), parallel.toString());
+    }
+}
@@ -0,0 +1,178 @@
+package com.mlpinit.solver;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.BoardAction;
+import com.mlpinit.models.BoardRequest;
+import com.mlpinit.models.Cell;
+import com.mlpinit.models.Coordinate;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class ProbabilityEngineTest {
+
+    @Test
+    public void testThatInteriorWeightsFollowBinomials() {
+        // C(5, 2), C(5, 1), C(5, 0) for 0, 1 and 2 frontier mines
+        BigInteger[] weights = ProbabilityEngine.interiorWeights(5, 2, 3);
+        assertEquals(BigInteger.valueOf(2).multiply(weights[1]), weights[0]);
+        assertEquals(BigInteger.valueOf(5).multiply(weights[2]), weights[1]);
+    }
+
+    @Test
+    public void testThatPolynomialDivisionUndoesMultiplication() {
+        BigInteger[] left = {BigInteger.ZERO, BigInteger.valueOf(3), BigInteger.valueOf(2)};
+        BigInteger[] right = {BigInteger.ONE, BigInteger.valueOf(4), BigInteger.ZERO, BigInteger.valueOf(7)};
+        BigInteger[] product = ProbabilityEngine.multiply(left, right);
+        assertEquals(Arrays.toString(right), Arrays.toString(ProbabilityEngine.divide(product, left)));
+    }
+
+    @Test
+    public void testThatProbabilitiesMatchBruteForce() {
+        int compared = 0;
+        for (long seed = 1; seed <= 100; seed++) {
+            Board board = new Board(6, 6, 7, seed);
+            ProbabilityEngine engine = new ProbabilityEngine(board);
+            board.execute(new BoardRequest(new Coordinate(3, 3), BoardAction.OPEN));
+            if (board.getState() != Board.State.STARTED || countClosed(board) > 26) continue;
+            MineProbabilities probabilities = engine.compute();
+            double[] expected = bruteForce(board);
+            for (int position = 0; position < 36; position++) {
+                assertEquals("Seed " + seed + " at " + position, expected[position],
+                        probabilities.getMineProbability(position), 1e-6);
+            }
+            assertEquals(true, probabilities.isExact());
+            compared++;
+        }
+        assertEquals(true, compared > 5);
+    }
+
+    @Test
+    public void testThatUnchangedComponentsComeFromTheCache() {
+        Board board = new Board(30, 30, 150, 5);
+        ProbabilityEngine engine = new ProbabilityEngine(board);
+        board.execute(new BoardRequest(new Coordinate(15, 15), BoardAction.OPEN));
+        engine.compute();
+        long misses = engine.getCacheMisses();
+        engine.compute();
+        assertEquals(misses, engine.getCacheMisses());
+        assertEquals(true, engine.getCacheHits() > 0);
+    }
+
+    @Test
+    public void testThatEstimatesAreNotCached() {
+        // a row of threes between two closed rows holding a mine in every column: one component of 60 cells,
+        // too large to count exactly
+        int width = 30;
+        boolean[][] mine = new boolean[3][width];
+        for (int y = 0; y < width; y++) mine[y % 2 == 0 ? 0 : 2][y] = true;
+        Cell[][] cells = new Cell[3][width];
+        for (int x = 0; x < 3; x++) {
+            for (int y = 0; y < width; y++) {
+                int value = 0;
+                for (int i = Math.max(0, x - 1); i <= Math.min(2, x + 1); i++) {
+                    for (int j = Math.max(0, y - 1); j <= Math.min(width - 1, y + 1); j++) {
+                        if (mine[i][j]) value++;
+                    }
+                }
+                cells[x][y] = new Cell(new Coordinate(x, y), mine[x][y] ? Cell.MINE : value);
+            }
+        }
+        Board board = new Board(3, width, width, 1);
+        board.setBoard(cells);
+        ProbabilityEngine engine = new ProbabilityEngine(board);
+        for (int y = 0; y < width; y++) board.execute(new BoardRequest(new Coordinate(1, y), BoardAction.OPEN));
+        assertEquals(false, engine.compute().isExact());
+        long misses = engine.getCacheMisses();
+        engine.compute();
+        assertEquals(misses + 1, engine.getCacheMisses());
+    }
+
+    @Test
+    public void testThatSamplingEstimatesSolutionCounts() {
+        // a row of ones above a row of unknown cells: every window of three holds exactly one mine
+        int variables = 30;
+        int[][] variablesOfConstraint = new int[variables][];
+        int[] remaining = new int[variables];
+        for (int c = 0; c < variables; c++) {
+            variablesOfConstraint[c] = c == 0 ? new int[]{0, 1} : c == variables - 1 ?
+                    new int[]{c - 1, c} : new int[]{c - 1, c, c + 1};
+            remaining[c] = 1;
+        }
+        Enumeration enumeration = new Enumeration(variables, variablesOfConstraint, remaining);
+        enumeration.run();
+        MonteCarloSampler sampler = new MonteCarloSampler(variables, variablesOfConstraint, remaining, 1);
+        sampler.run(System.nanoTime() + 100_000_000L);
+        double estimate = 0;
+        for (double count : sampler.solutionsByMines) estimate += count;
+        assertEquals(enumeration.getSolutions(), estimate, enumeration.getSolutions() * 0.1);
+    }
+
+    private int countClosed(Board board) {
+        int closed = 0;
+        for (int x = 0; x < board.getHeight(); x++) {
+            for (int y = 0; y < board.getWidth(); y++) {
+                if (board.getVisibleValue(x, y) == Board.HIDDEN) closed++;
+            }
+        }
+        return closed;
+    }
+
+    // Frequency of a mine on every cell over all mine placements that agree with the visible numbers.
+    private double[] bruteForce(Board board) {
+        int width = board.getWidth();
+        int cells = board.getHeight() * width;
+        int[] closed = new int[cells];
+        int nrOfClosed = 0;
+        for (int position = 0; position < cells; position++) {
+            if (board.getVisibleValue(position / width, position % width) == Board.HIDDEN) {
+                closed[nrOfClosed++] = position;
+            }
+        }
+        long[] mineCounts = new long[cells];
+        long[] solutions = new long[1];
+        place(board, Arrays.copyOf(closed, nrOfClosed), 0, board.getNrOfMines(), new boolean[cells], mineCounts,
+                solutions);
+        double[] probabilities = new double[cells];
+        for (int position = 0; position < cells; position++) {
+            probabilities[position] = (double) mineCounts[position] / solutions[0];
+        }
+        return probabilities;
+    }
+
+    private void place(Board board, int[] closed, int from, int mines, boolean[] mine, long[] mineCounts,
+                       long[] solutions) {
+        if (mines == 0) {
+            if (!consistent(board, mine)) return;
+            solutions[0]++;
+            for (int position = 0; position < mine.length; position++) if (mine[position]) mineCounts[position]++;
+            return;
+        }
+        for (int i = from; i <= closed.length - mines; i++) {
+            mine[closed[i]] = true;
+            place(board, closed, i + 1, mines - 1, mine, mineCounts, solutions);
+            mine[closed[i]] = false;
+        }
+    }
+
+    private boolean consistent(Board board, boolean[] mine) {
+        int width = board.getWidth();
+        for (int x = 0; x < board.getHeight(); x++) {
+            for (int y = 0; y < width; y++) {
+                int value = board.getVisibleValue(x, y);
+                if (value == Board.HIDDEN) continue;
+                int counter = 0;
+                for (int i = Math.max(0, x - 1); i <= Math.min(board.getHeight() - 1, x + 1); i++) {
+                    for (int j = Math.max(0, y - 1); j <= Math.min(width - 1, y + 1); j++) {
+                        if (mine[i * width + j]) counter++;
+                    }
+                }
+                if (counter != value) return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,73 @@
+package com.mlpinit.solver;
+
+import com.mlpinit.models.Board;
+import com.mlpinit.models.Cell;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class SolverTest {
+
+    @Test
+    public void testThatItReducesOverlappingNumbers() {
+        // hidden row above a 1 2 1 row
+        Solver solver = new Solver(2, 3);
+        solver.opened(3, 1);
+        solver.opened(4, 2);
+        solver.opened(5, 1);
+        assertEquals(true, solver.solve());
+        assertEquals("[0, 2]", Arrays.toString(solver.getMineCells()));
+        assertEquals("[1]", Arrays.toString(solver.getSafeCells()));
+    }
+
+    @Test
+    public void testThatDeductionsMatchTheBoard() {
+        for (long seed = 1; seed <= 20; seed++) {
+            Board board = new Board(16, 30, 99, seed);
+            AutoPlayer player = new AutoPlayer(board);
+            player.play();
+            Cell[][] cells = board.getBoard();
+            Solver solver = player.getSolver();
+            for (int position = 0; position < 16 * 30; position++) {
+                boolean mine = cells[position / 30][position % 30].getValue() == Cell.MINE;
+                if (solver.isKnownMine(position)) assertEquals("Seed " + seed + " at " + position, true, mine);
+                if (solver.isKnownSafe(position)) assertEquals("Seed " + seed + " at " + position, true, !mine);
+            }
+        }
+    }
+
+    @Test
+    public void testThatAutoPlayNeverOpensAMine() {
+        int won = 0;
+        for (long seed = 1; seed <= 30; seed++) {
+            Board board = new Board(16, 16, 40, seed);
+            new AutoPlayer(board).play();
+            if (board.getState() == Board.State.GAME_OVER) {
+                assertEquals("Seed " + seed, 0, board.getStats().getClosedSafeCells());
+                won++;
+            }
+        }
+        assertEquals(true, won > 0);
+    }
+
+    @Test
+    public void testThatAResetBoardStartsTheSolverOver() {
+        Board board = new Board(16, 16, 40, 1);
+        AutoPlayer player = new AutoPlayer(board);
+        player.play();
+        for (long seed = 2; seed <= 6; seed++) {
+            board.reset(seed);
+            assertEquals(256, player.getSolver().getUnknownCells());
+            player.play();
+            Cell[][] cells = board.getBoard();
+            Solver solver = player.getSolver();
+            for (int position = 0; position < 16 * 16; position++) {
+                boolean mine = cells[position / 16][position % 16].getValue() == Cell.MINE;
+                if (solver.isKnownMine(position)) assertEquals("Seed " + seed + " at " + position, true, mine);
+                if (solver.isKnownSafe(position)) assertEquals("Seed " + seed + " at " + position, true, !mine);
+            }
+        }
+    }
+}
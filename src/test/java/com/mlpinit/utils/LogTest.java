@@ -0,0 +1,104 @@
+package com.mlpinit.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class LogTest {
+    private static final String TAG = "[LogTest]";
+
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private Log.Level level;
+
+    @Before
+    public void setup() {
+        level = Log.getLevel();
+        Log.setOutput(new PrintStream(output, true));
+    }
+
+    @After
+    public void tearDown() {
+        Log.flush();
+        Log.setLevel(level);
+        Log.setOutput(System.out);
+    }
+
+    @Test
+    public void testThatMessagesBelowTheLevelAreNotWritten() {
+        Log.setLevel(Log.Level.WARN);
+        assertEquals(false, Log.isEnabled(Log.Level.INFO));
+        assertEquals(true, Log.isEnabled(Log.Level.ERROR));
+        Log.debug(TAG, "debug");
+        Log.info(TAG, "info");
+        Log.warn(TAG, "warn");
+        Log.error(TAG, "error");
+        Log.flush();
+        assertEquals("[warn, error]", lines().toString());
+        Log.setLevel(Log.Level.OFF);
+        assertEquals(false, Log.isEnabled(Log.Level.OFF));
+    }
+
+    @Test
+    public void testThatSuppliersAreOnlyCalledWhenTheLevelIsEnabled() {
+        Log.setLevel(Log.Level.INFO);
+        Log.debug(TAG, () -> {
+            throw new AssertionError("Built a message that is not logged");
+        });
+        Log.info(TAG, () -> "built");
+        Log.flush();
+        assertEquals("[built]", lines().toString());
+    }
+
+    @Test
+    public void testThatFlushWaitsForEveryMessageInOrder() {
+        Log.setLevel(Log.Level.INFO);
+        for (int i = 0; i < 5000; i++) Log.info(TAG, Integer.toString(i));
+        Log.flush();
+        List<String> lines = lines();
+        assertEquals(5000, lines.size());
+        for (int i = 0; i < lines.size(); i++) assertEquals(Integer.toString(i), lines.get(i));
+    }
+
+    @Test
+    public void testThatMessagesAreDroppedAndCountedWhenTheQueueIsFull() throws Exception {
+        Log.setLevel(Log.Level.INFO);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Log.setOutput(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }));
+        Log.info(TAG, "blocks the writer");
+        writing.await();
+        long dropped = Log.getDroppedMessages();
+        // the writer holds at most one batch, the queue fills up behind it
+        for (int i = 0; i < 1 << 17; i++) Log.info(TAG, "queued");
+        release.countDown();
+        assertEquals(true, Log.getDroppedMessages() - dropped >= (1 << 17) - (1 << 16));
+    }
+
+    // The messages of this test, without the tag.
+    private List<String> lines() {
+        List<String> lines = new ArrayList<>();
+        for (String line : output.toString().split("\n")) {
+            if (line.startsWith(TAG + ": ")) lines.add(line.substring(TAG.length() + 2));
+        }
+        return lines;
+    }
+}
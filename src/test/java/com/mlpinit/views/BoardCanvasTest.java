@@ -0,0 +1,80 @@
+package com.mlpinit.views;
+
+import com.mlpinit.models.BasicColor;
+import com.mlpinit.models.Board;
+import com.mlpinit.models.BoardAction;
+import com.mlpinit.models.BoardRequest;
+import com.mlpinit.models.Coordinate;
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class BoardCanvasTest {
+    private static final int CELL = BoardCanvas.CELL_SIZE;
+
+    @Test
+    public void testThatPixelsMapToCells() {
+        BoardCanvas canvas = new BoardCanvas(16, 30);
+        assertEquals("[0,0]", canvas.cellAt(0, 0).toString());
+        assertEquals("[1,2]", canvas.cellAt(2 * CELL + CELL - 1, CELL).toString());
+        assertEquals("[15,29]", canvas.cellAt(30 * CELL + 40, 16 * CELL + 40).toString());
+    }
+
+    @Test
+    public void testThatOpenedCellsArePainted() {
+        Board board = new Board(16, 30, 10, 1);
+        BoardCanvas canvas = new BoardCanvas(16, 30);
+        board.boardUpdateObservable.subscribe(canvas::apply);
+        board.execute(new BoardRequest(new Coordinate(8, 15), BoardAction.OPEN));
+        BufferedImage image = paint(canvas, new Rectangle(0, 0, 30 * CELL, 16 * CELL));
+        for (int x = 0; x < 16; x++) {
+            for (int y = 0; y < 30; y++) {
+                // the top left pixel is never covered by a label
+                Color pixel = new Color(image.getRGB(y * CELL + 1, x * CELL + 1));
+                boolean opened = board.getVisibleValue(x, y) != Board.HIDDEN;
+                assertEquals("Cell " + x + "," + y, opened, pixel.equals(BasicColor.openCellColor));
+            }
+        }
+    }
+
+    @Test
+    public void testThatOnlyTheClipIsPainted() {
+        BoardCanvas canvas = new BoardCanvas(1000, 1000);
+        BufferedImage image = paint(canvas, new Rectangle(CELL, CELL, CELL, CELL));
+        assertEquals(BasicColor.baseColor, new Color(image.getRGB(CELL + 5, CELL + 5)));
+        assertEquals(0, image.getRGB(5, 5));
+    }
+
+    @Test
+    public void testThatAMarkRepaintsOnlyItsCell() {
+        Board board = new Board(16, 30, 99, 2);
+        Rectangle[] repainted = new Rectangle[1];
+        BoardCanvas canvas = new BoardCanvas(16, 30) {
+            @Override
+            public void repaint(int x, int y, int width, int height) {
+                repainted[0] = new Rectangle(x, y, width, height);
+            }
+        };
+        board.open(0, 0);
+        board.boardUpdateObservable.subscribe(canvas::apply);
+        int x = 15;
+        int y = 29;
+        while (board.getVisibleValue(x, y) != Board.HIDDEN) y--;
+        board.execute(new BoardRequest(new Coordinate(x, y), BoardAction.MARK));
+        assertEquals(new Rectangle(y * CELL, x * CELL, CELL, CELL), repainted[0]);
+    }
+
+    private BufferedImage paint(BoardCanvas canvas, Rectangle clip) {
+        BufferedImage image = new BufferedImage(clip.x + clip.width, clip.y + clip.height,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setClip(clip);
+        canvas.setSize(canvas.getPreferredSize());
+        canvas.paint(graphics);
+        graphics.dispose();
+        return image;
+    }
+}
@@ -0,0 +1,66 @@
+package com.mlpinit.views;
+
+import com.mlpinit.models.BoardAction;
+import com.mlpinit.models.BoardActionInterpreter;
+import com.mlpinit.models.BoardRequest;
+import com.mlpinit.models.MouseButtonEvent;
+import org.junit.Test;
+import rx.observers.TestSubscriber;
+
+import javax.swing.*;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class CellMouseListenerTest {
+    private static final int CELL = 25;
+    private final JPanel source = new JPanel();
+    private final CellMouseListener listener = new CellMouseListener(16, 30, CELL);
+
+    @Test
+    public void testThatEnteredIsOnlyReportedWhenTheCellChanges() {
+        List<String> events = new ArrayList<>();
+        listener.mouseButtonEventObservable.subscribe(event -> events.add(describe(event)));
+        listener.mousePressed(event(MouseEvent.MOUSE_PRESSED, 5, 5, MouseEvent.BUTTON1));
+        listener.mouseDragged(event(MouseEvent.MOUSE_DRAGGED, 20, 20, MouseEvent.NOBUTTON));
+        listener.mouseDragged(event(MouseEvent.MOUSE_DRAGGED, 30, 20, MouseEvent.NOBUTTON));
+        listener.mouseDragged(event(MouseEvent.MOUSE_DRAGGED, 40, 20, MouseEvent.NOBUTTON));
+        listener.mouseReleased(event(MouseEvent.MOUSE_RELEASED, 40, 20, MouseEvent.BUTTON1));
+        assertEquals("[pressed [0,0], entered [0,1], released [0,1]]", events.toString());
+    }
+
+    @Test
+    public void testThatPointsOutsideTheGridUseTheNearestCell() {
+        List<String> events = new ArrayList<>();
+        listener.mouseButtonEventObservable.subscribe(event -> events.add(describe(event)));
+        listener.mousePressed(event(MouseEvent.MOUSE_PRESSED, 30 * CELL + 100, -10, MouseEvent.BUTTON3));
+        assertEquals("[pressed [0,29]]", events.toString());
+    }
+
+    @Test
+    public void testThatADraggedClickOpensTheCellItIsReleasedOn() {
+        BoardActionInterpreter interpreter = BoardActionInterpreter.create();
+        TestSubscriber<BoardRequest> subscriber = new TestSubscriber<>();
+        interpreter.boardRequestObservable.subscribe(subscriber);
+        listener.mouseButtonEventObservable.subscribe(interpreter::addEvent);
+        listener.mousePressed(event(MouseEvent.MOUSE_PRESSED, 5, 5, MouseEvent.BUTTON1));
+        listener.mouseDragged(event(MouseEvent.MOUSE_DRAGGED, 5, 2 * CELL + 5, MouseEvent.NOBUTTON));
+        listener.mouseReleased(event(MouseEvent.MOUSE_RELEASED, 5, 2 * CELL + 5, MouseEvent.BUTTON1));
+        BoardRequest request = subscriber.getOnNextEvents().get(0);
+        assertEquals(BoardAction.OPEN, request.getActionType());
+        assertEquals("[2,0]", request.getCoordinate().toString());
+        subscriber.unsubscribe();
+    }
+
+    private MouseEvent event(int id, int x, int y, int button) {
+        return new MouseEvent(source, id, 0, 0, x, y, 1, false, button);
+    }
+
+    private String describe(MouseButtonEvent event) {
+        String name = event.getButtonID() == MouseEvent.MOUSE_PRESSED ? "pressed" :
+                event.getButtonID() == MouseEvent.MOUSE_RELEASED ? "released" : "entered";
+        return name + " " + event.getCoordinate();
+    }
+}
@@ -0,0 +1,38 @@
+package com.mlpinit.views;
+
+import com.mlpinit.models.BasicColor;
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class CellSpritesTest {
+
+    @Test
+    public void testThatSpritesAreRenderedOncePerCellSize() {
+        assertEquals(true, CellSprites.forCellSize(25) == CellSprites.forCellSize(25));
+        assertEquals(false, CellSprites.forCellSize(25) == CellSprites.forCellSize(16));
+        assertEquals(16 * CellSprites.SPRITES, CellSprites.forCellSize(16).getAtlas().getWidth());
+    }
+
+    @Test
+    public void testThatDrawingCopiesTheSprite() {
+        CellSprites sprites = CellSprites.forCellSize(25);
+        BufferedImage image = new BufferedImage(50, 25, BufferedImage.TYPE_INT_RGB);
+        Graphics graphics = image.getGraphics();
+        sprites.draw(graphics, CellSprites.OPENED + 3, 0, 0);
+        sprites.draw(graphics, CellSprites.MINE, 25, 0);
+        graphics.dispose();
+        BufferedImage atlas = sprites.getAtlas();
+        for (int x = 0; x < 25; x++) {
+            for (int y = 0; y < 25; y++) {
+                assertEquals(atlas.getRGB((CellSprites.OPENED + 3) * 25 + x, y), image.getRGB(x, y));
+                assertEquals(atlas.getRGB(CellSprites.MINE * 25 + x, y), image.getRGB(25 + x, y));
+            }
+        }
+        assertEquals(BasicColor.openCellColor, new Color(image.getRGB(1, 1)));
+        assertEquals(BasicColor.mineColor, new Color(image.getRGB(26, 1)));
+    }
+}